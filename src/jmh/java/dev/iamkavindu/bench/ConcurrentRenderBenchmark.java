@@ -0,0 +1,67 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a shared {@link VelocityTemplateService} as concurrency grows,
+ * exposing contention in the template cache and the engine.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentRenderBenchmark {
+
+    private String template;
+    private Map<String, Object> data;
+    private VelocityTemplateService templateService;
+
+    @Setup
+    public void setUp() {
+        template = Fixtures.template(Fixtures.Size.MEDIUM);
+        data = Fixtures.jsonParserService(Integer.MAX_VALUE).parseJsonToMap(Fixtures.json(Fixtures.Size.MEDIUM));
+        templateService = Fixtures.templateService();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads1() throws TemplateRenderException {
+        return templateService.render(template, data, RenderChannel.API);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public String threads2() throws TemplateRenderException {
+        return templateService.render(template, data, RenderChannel.API);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads4() throws TemplateRenderException {
+        return templateService.render(template, data, RenderChannel.API);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String threadsMax() throws TemplateRenderException {
+        return templateService.render(template, data, RenderChannel.API);
+    }
+}
@@ -0,0 +1,95 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.config.VelocityEngineProperties;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render hot path under each {@link VelocityEngineProperties.Profile}.
+ * {@code render} is the steady state with a cached template; {@code renderWithMissingReferences}
+ * adds references that do not resolve, which the default profile logs on every render.
+ * {@link FirstRender} measures the first render on a fresh engine, where introspector warm-up pays off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineProfileBenchmark {
+
+    private static final String MISSING_REFERENCES = "<p>$user.nickname $user.title</p>\n";
+
+    @Param({"DEFAULT", "THROUGHPUT"})
+    private VelocityEngineProperties.Profile profile;
+
+    @Param({"SMALL", "MEDIUM"})
+    private Fixtures.Size size;
+
+    private String template;
+    private Map<String, Object> data;
+    private VelocityTemplateService templateService;
+
+    @Setup
+    public void setUp() {
+        template = Fixtures.template(size);
+        data = Fixtures.jsonParserService(Integer.MAX_VALUE).parseJsonToMap(Fixtures.json(size));
+        templateService = Fixtures.templateService(VelocityEngineProperties.of(profile));
+    }
+
+    @Benchmark
+    public String render() throws TemplateRenderException {
+        return templateService.render(template, data, RenderChannel.API);
+    }
+
+    @Benchmark
+    public String renderWithMissingReferences() throws TemplateRenderException {
+        return templateService.render(MISSING_REFERENCES + template, data, RenderChannel.API);
+    }
+
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public static class FirstRender {
+
+        @Param({"DEFAULT", "THROUGHPUT"})
+        private VelocityEngineProperties.Profile profile;
+
+        private String template;
+        private Map<String, Object> data;
+        private VelocityTemplateService templateService;
+
+        @Setup(Level.Trial)
+        public void setUpData() {
+            template = Fixtures.template(Fixtures.Size.MEDIUM);
+            data = Fixtures.jsonParserService(Integer.MAX_VALUE).parseJsonToMap(Fixtures.json(Fixtures.Size.MEDIUM));
+        }
+
+        @Setup(Level.Iteration)
+        public void setUpEngine() {
+            templateService = Fixtures.templateService(VelocityEngineProperties.of(profile));
+        }
+
+        @Benchmark
+        public String firstRender() throws TemplateRenderException {
+            return templateService.render(template, data, RenderChannel.API);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.config.AppConfig;
+import dev.iamkavindu.config.VelocityEngineProperties;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.service.InlineTemplateLoader;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.RenderLimits;
+import dev.iamkavindu.service.RenderWorkerPool;
+import dev.iamkavindu.service.RepositoryTemplateLoader;
+import dev.iamkavindu.service.VelocityTemplateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.velocity.app.VelocityEngine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Templates, data sets and wiring shared by the benchmarks.
+ * Sizes roughly match a quick edit (small), a typical page (medium) and a report (large).
+ */
+public final class Fixtures {
+
+    public enum Size {
+        SMALL(5), MEDIUM(100), LARGE(5_000);
+
+        final int rows;
+
+        Size(int rows) {
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * The engine profile shipped in application.properties.
+     */
+    static final VelocityEngineProperties ENGINE =
+            VelocityEngineProperties.of(VelocityEngineProperties.Profile.THROUGHPUT);
+
+    private Fixtures() {
+    }
+
+    static String template(Size size) {
+        return switch (size) {
+            case SMALL -> """
+                    <h1>Hello, $user.firstName $user.lastName!</h1>
+                    <p>$user.email</p>
+                    """;
+            case MEDIUM -> """
+                    <h1>Orders for $user.firstName</h1>
+                    <table>
+                    #foreach($order in $orders)
+                      <tr class="#if($foreach.count % 2 == 0)even#else odd#end">
+                        <td>$order.id</td><td>$order.product</td><td>$order.price</td>
+                        <td>#if($order.shipped)shipped#else pending#end</td>
+                      </tr>
+                    #end
+                    </table>
+                    """;
+            case LARGE -> """
+                    #macro(row $order)
+                      <tr><td>$order.id</td><td>$order.product</td><td>$order.price</td>
+                      <td>#foreach($tag in $order.tags)<span>$tag</span>#end</td>
+                      <td>$order.customer.name ($order.customer.city)</td></tr>
+                    #end
+                    <h1>Report for $user.firstName $user.lastName</h1>
+                    #set($total = 0)
+                    <table>
+                    #foreach($order in $orders)
+                      #row($order)
+                      #set($total = $total + $order.quantity)
+                    #end
+                    </table>
+                    <p>Total items: $total</p>
+                    """.repeat(4);
+        };
+    }
+
+    static String json(Size size) {
+        StringBuilder json = new StringBuilder("""
+                {"user": {"firstName": "Jane", "lastName": "Smith", "email": "jane.smith@example.com"},
+                 "orders": [""");
+        for (int i = 0; i < size.rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("""
+                    {"id": %d, "product": "Product %d", "price": %d.99, "quantity": %d, "shipped": %b,
+                     "tags": ["tag-%d", "tag-%d"], "customer": {"name": "Customer %d", "city": "City %d"}}"""
+                    .formatted(i, i, i % 100, i % 7, i % 3 == 0, i % 10, i % 13, i, i % 50));
+        }
+        return json.append("]}").toString();
+    }
+
+    static VelocityEngine velocityEngine() {
+        AppConfig config = new AppConfig();
+        return config.velocityEngine(ENGINE, config.inlineTemplateLoader(), repositoryLoader(config), limits());
+    }
+
+    static VelocityTemplateService templateService() {
+        return templateService(ENGINE);
+    }
+
+    static VelocityTemplateService templateService(VelocityEngineProperties engine) {
+        AppConfig config = new AppConfig();
+        InlineTemplateLoader loader = config.inlineTemplateLoader();
+        VelocityEngine velocityEngine = config.velocityEngine(engine, loader, repositoryLoader(config), limits());
+        return new VelocityTemplateService(velocityEngine, config.globalContext(), loader,
+                config.macroLibrary(velocityEngine, "macros"), metrics(), limits(), RenderWorkerPool.unbounded(metrics()), 256, 16 << 20);
+    }
+
+    /**
+     * An empty repository; benchmarks render inline templates only.
+     */
+    static RepositoryTemplateLoader repositoryLoader(AppConfig config) {
+        return config.repositoryTemplateLoader(config.templateRepository("filesystem", Path.of("target", "jmh-templates")), 0);
+    }
+
+    /**
+     * The limits shipped in application.properties, so benchmarks include the cost of governance.
+     */
+    static RenderLimits limits() {
+        return new AppConfig().renderLimits(Duration.ofSeconds(5), 10_485_760, 1_000_000, 20);
+    }
+
+    static RenderMetrics metrics() {
+        return new RenderMetrics(new SimpleMeterRegistry());
+    }
+
+    /**
+     * Without a context cache, so benchmarks measure the parse itself.
+     */
+    static JsonParserService jsonParserService(int lazyBindingThreshold) {
+        return new JsonParserService(metrics(), lazyBindingThreshold, Integer.MAX_VALUE, 0, 0, Duration.ZERO);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.service.JsonParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning the JSON editor content into a render context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParseBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.Size size;
+
+    private String json;
+    private JsonParserService jsonParserService;
+
+    @Setup
+    public void setUp() {
+        json = Fixtures.json(size);
+        jsonParserService = Fixtures.jsonParserService(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseJsonToMap() {
+        return jsonParserService.parseJsonToMap(json);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.OutputPipeline;
+import dev.iamkavindu.service.RenderBudget;
+import dev.iamkavindu.service.RenderedOutput;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.apache.velocity.Template;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render to bytes on the wire: a {@code String} encoded afterwards, as the API used to do,
+ * against the pooled buffer that encodes to UTF-8 while rendering.
+ * Run with {@code -prof gc} to compare allocation per render.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputPathBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.Size size;
+
+    private String template;
+    private Map<String, Object> context;
+    private VelocityTemplateService templateService;
+
+    @Setup
+    public void setUp() {
+        template = Fixtures.template(size);
+        context = Fixtures.jsonParserService(Integer.MAX_VALUE)
+                .parseJsonToContext(Fixtures.json(size), RenderChannel.API);
+        templateService = Fixtures.templateService();
+    }
+
+    @Benchmark
+    public void renderString() throws TemplateRenderException, IOException {
+        String output = templateService.render(template, context, RenderChannel.API);
+        OutputStream.nullOutputStream().write(output.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void renderPooledUtf8() throws TemplateRenderException, IOException {
+        Template compiled = templateService.compile(template, RenderChannel.API);
+        try (RenderedOutput output = templateService.mergeUtf8(compiled, context, RenderChannel.API,
+                RenderBudget.start(templateService.renderLimits()), OutputPipeline.NONE)) {
+            output.writeTo(OutputStream.nullOutputStream());
+        }
+    }
+}
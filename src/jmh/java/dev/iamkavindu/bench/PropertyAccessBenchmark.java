@@ -0,0 +1,67 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Property-heavy templates with and without the JSON fast path of the uberspector.
+ * Velocity resolves every reference afresh in each render, so templates with many distinct
+ * references over little data spend most of their time in introspection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyAccessBenchmark {
+
+    private static final String TEMPLATE = """
+            <h1>$user.firstName $user.lastName</h1><p>$user.email</p>
+            #foreach($order in $orders)
+              <dl><dt>$order.id</dt><dd>$order.product</dd><dd>$order.price</dd><dd>$order.quantity</dd>
+              <dd>#if($order.shipped)shipped#else pending#end</dd>
+              <dd>$order.customer.name, $order.customer.city</dd>
+              <dd>#foreach($tag in $order.tags)$tag #end</dd></dl>
+            #end
+            """;
+
+    @Param({"true", "false"})
+    private boolean jsonFastPath;
+
+    @Param({"SMALL", "MEDIUM"})
+    private Fixtures.Size size;
+
+    @Param({"eager", "lazy"})
+    private String binding;
+
+    private Map<String, Object> data;
+    private VelocityTemplateService templateService;
+
+    @Setup
+    public void setUp() {
+        int lazyBindingThreshold = "lazy".equals(binding) ? 0 : Integer.MAX_VALUE;
+        data = Fixtures.jsonParserService(lazyBindingThreshold).parseJsonToContext(Fixtures.json(size), RenderChannel.API);
+        templateService = Fixtures.templateService(Fixtures.ENGINE.withJsonFastPath(jsonFastPath));
+    }
+
+    @Benchmark
+    public String render() throws TemplateRenderException {
+        return templateService.render(TEMPLATE, data, RenderChannel.API);
+    }
+}
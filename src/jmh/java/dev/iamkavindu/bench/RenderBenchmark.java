@@ -0,0 +1,60 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end render as the UI performs it: bind the JSON text, then render the template.
+ * The lazy variant binds through the on-demand JSON views regardless of document size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.Size size;
+
+    private String template;
+    private String json;
+    private VelocityTemplateService templateService;
+    private JsonParserService eagerJson;
+    private JsonParserService lazyJson;
+
+    @Setup
+    public void setUp() {
+        template = Fixtures.template(size);
+        json = Fixtures.json(size);
+        templateService = Fixtures.templateService();
+        eagerJson = Fixtures.jsonParserService(Integer.MAX_VALUE);
+        lazyJson = Fixtures.jsonParserService(0);
+    }
+
+    @Benchmark
+    public String renderEagerJson() throws TemplateRenderException {
+        return templateService.render(template, eagerJson.parseJsonToContext(json, RenderChannel.UI), RenderChannel.UI);
+    }
+
+    @Benchmark
+    public String renderLazyJson() throws TemplateRenderException {
+        return templateService.render(template, lazyJson.parseJsonToContext(json, RenderChannel.UI), RenderChannel.UI);
+    }
+}
@@ -0,0 +1,69 @@
+package dev.iamkavindu.bench;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse-and-merge on every call ({@link VelocityEngine#evaluate}) against merging an
+ * already parsed template, on the same data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateEvaluateBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private Fixtures.Size size;
+
+    private String template;
+    private Map<String, Object> data;
+    private VelocityEngine velocityEngine;
+    private Template compiled;
+
+    @Setup
+    public void setUp() throws TemplateRenderException {
+        template = Fixtures.template(size);
+        JsonParserService jsonParserService = Fixtures.jsonParserService(Integer.MAX_VALUE);
+        data = jsonParserService.parseJsonToMap(Fixtures.json(size));
+        velocityEngine = Fixtures.velocityEngine();
+        VelocityTemplateService templateService = Fixtures.templateService();
+        compiled = templateService.compile(template, RenderChannel.API);
+    }
+
+    @Benchmark
+    public String evaluate() {
+        StringWriter writer = new StringWriter();
+        velocityEngine.evaluate(new VelocityContext(data), writer, "TemplateEvaluateBenchmark", template);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String mergeCompiled() {
+        StringWriter writer = new StringWriter();
+        compiled.merge(new VelocityContext(data), writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package dev.iamkavindu.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+/**
+ * Heap and GC activity of this JVM, which hosts the application under test.
+ * Heap usage is sampled in the background to catch the peak between collections.
+ */
+final class HeapMonitor implements AutoCloseable {
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final Thread sampler;
+    private volatile long peakUsed;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+
+    HeapMonitor() {
+        sampler = Thread.ofPlatform().daemon().name("heap-sampler").unstarted(this::sample);
+    }
+
+    void start() {
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+        peakUsed = used();
+        sampler.start();
+    }
+
+    /**
+     * Heap still in use after a full collection: what the application retains, without garbage.
+     */
+    long retained() {
+        System.gc();
+        System.gc();
+        return used();
+    }
+
+    long used() {
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    long max() {
+        return memory.getHeapMemoryUsage().getMax();
+    }
+
+    long peakUsed() {
+        return peakUsed;
+    }
+
+    long gcCount() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum() - gcCountAtStart;
+    }
+
+    long gcMillis() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - gcMillisAtStart;
+    }
+
+    private void sample() {
+        while (!Thread.currentThread().isInterrupted()) {
+            peakUsed = Math.max(peakUsed, used());
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        sampler.interrupt();
+    }
+}
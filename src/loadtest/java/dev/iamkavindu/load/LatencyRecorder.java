@@ -0,0 +1,76 @@
+package dev.iamkavindu.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects raw latencies of one kind of operation. Samples are kept as is, not bucketed,
+ * so tail percentiles such as p99.9 are exact; a run of a few minutes fits in memory easily.
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1 << 14];
+    private int count;
+    private long errors;
+    private long rejected;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    /**
+     * A render turned away by load shedding, e.g. {@code 429 Too Many Requests}.
+     */
+    synchronized void rejected() {
+        rejected++;
+    }
+
+    synchronized void reset() {
+        count = 0;
+        errors = 0;
+        rejected = 0;
+    }
+
+    synchronized Summary summarize(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count, errors, rejected, count / (elapsedNanos / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /**
+     * Latencies in nanoseconds.
+     */
+    record Summary(String name, long count, long errors, long rejected, double perSecond,
+                   long p50, long p99, long p999, long max) {
+
+        String format() {
+            return "%-12s %9d ok %6d rejected %6d errors %9.1f/s   p50 %8.2f ms   p99 %8.2f ms   p99.9 %8.2f ms   max %8.2f ms"
+                    .formatted(name, count, rejected, errors, perSecond, millis(p50), millis(p99), millis(p999), millis(max));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package dev.iamkavindu.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.iamkavindu.VelocityRendererApplication;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.TemplateAnalyzer;
+import dev.iamkavindu.service.VelocityTemplateService;
+import dev.iamkavindu.ui.SimulatedPreviewSession;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Capacity test of one instance: starts the application in this JVM and drives it with
+ * simulated editor sessions and API clients at the same time, then reports throughput,
+ * latency percentiles, heap and GC activity, and the heap retained per editor session.
+ * <p>
+ * Editor sessions type in bursts: every {@code --edit-interval} the template changes, as the
+ * browser reports it after the live render delay, then the user pauses for {@code --think-time}.
+ * API clients post renders back to back, with data that differs per request so the output
+ * cache does not answer for the renderer. Arguments that are not load test options are passed
+ * on to the application, e.g. {@code --velocity-renderer.workers.count=2}.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--ui-sessions=50"}.
+ */
+public final class LoadTest {
+
+    private static final String TEMPLATE = """
+            <h1>Orders for $user.firstName</h1>
+            <table>
+            #foreach($order in $orders)
+              <tr class="#if($foreach.count % 2 == 0)even#else odd#end">
+                <td>$order.id</td><td>$order.product</td><td>$order.price</td>
+                <td>#if($order.shipped)shipped#else pending#end</td>
+              </tr>
+            #end
+            </table>
+            """;
+
+    private final Options options;
+    private final LatencyRecorder previews = new LatencyRecorder("ui preview");
+    private final LatencyRecorder renders = new LatencyRecorder("api render");
+    private final AtomicLong requestIds = new AtomicLong();
+    private volatile boolean running = true;
+
+    private LoadTest(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new LoadTest(options).run();
+        // Leftover non-daemon threads of the application must not keep the JVM alive
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        try (HeapMonitor heap = new HeapMonitor()) {
+            List<String> appArgs = new ArrayList<>(options.appArgs());
+            appArgs.addAll(List.of("--server.port=0", "--vaadin.launch-browser=false"));
+            ConfigurableApplicationContext context = SpringApplication.run(VelocityRendererApplication.class,
+                    appArgs.toArray(String[]::new));
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                long baseline = heap.retained();
+
+                List<SimulatedPreviewSession> sessions = new ArrayList<>();
+                List<Thread> users = new ArrayList<>();
+                String json = json(options.rows());
+                for (int i = 0; i < options.uiSessions(); i++) {
+                    SimulatedPreviewSession session = new SimulatedPreviewSession(
+                            context.getBean(VelocityTemplateService.class), context.getBean(JsonParserService.class),
+                            context.getBean(TemplateAnalyzer.class), listener(previews));
+                    sessions.add(session);
+                    int sessionId = i;
+                    users.add(Thread.ofVirtual().name("editor-" + i).start(() -> edit(session, sessionId, json)));
+                }
+                HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                URI endpoint = URI.create("http://localhost:" + port + "/api/render");
+                for (int i = 0; i < options.apiClients(); i++) {
+                    users.add(Thread.ofVirtual().name("api-client-" + i).start(() -> post(http, endpoint)));
+                }
+
+                System.out.printf("Warming up for %s with %d editor sessions and %d API clients%n",
+                        options.warmup(), options.uiSessions(), options.apiClients());
+                Thread.sleep(options.warmup());
+                previews.reset();
+                renders.reset();
+                heap.start();
+                long start = System.nanoTime();
+                Thread.sleep(options.duration());
+                long elapsed = System.nanoTime() - start;
+                long peak = heap.peakUsed();
+                long gcCount = heap.gcCount();
+                long gcMillis = heap.gcMillis();
+                // Measured while sessions are still open, so their state counts
+                long retained = heap.retained();
+
+                running = false;
+                for (Thread user : users) {
+                    user.join(Duration.ofSeconds(10));
+                }
+                sessions.forEach(SimulatedPreviewSession::close);
+
+                report(elapsed, baseline, retained, peak, heap.max(), gcCount, gcMillis);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private void edit(SimulatedPreviewSession session, int sessionId, String json) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder template = new StringBuilder("## session ").append(sessionId).append('\n').append(TEMPLATE);
+        // Users do not start typing in lockstep
+        pause(Duration.ofMillis(random.nextLong(options.editInterval().toMillis() + 1)));
+        while (running) {
+            for (int i = 0; i < options.burst() && running; i++) {
+                // Every change is new template text, so it is parsed like a real edit
+                template.append(random.nextBoolean() ? "<b>$user.firstName</b>" : "<i>edited</i>").append('\n');
+                session.edit(template.toString(), json);
+                pause(options.editInterval());
+            }
+            pause(Duration.ofMillis(random.nextLong(options.thinkTime().toMillis() / 2, options.thinkTime().toMillis() * 3 / 2 + 1)));
+        }
+    }
+
+    private void post(HttpClient http, URI endpoint) {
+        String orders = json(options.rows());
+        while (running) {
+            String body = "{\"template\": %s, \"data\": %s}".formatted(quote(TEMPLATE),
+                    orders.replace("{\"user\"", "{\"requestId\": " + requestIds.incrementAndGet() + ", \"user\""));
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                switch (response.statusCode()) {
+                    case 200 -> renders.record(System.nanoTime() - start);
+                    case 429 -> renders.rejected();
+                    default -> renders.error();
+                }
+            } catch (IOException e) {
+                renders.error();
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void report(long elapsed, long baseline, long retained, long peak, long max, long gcCount, long gcMillis)
+            throws IOException {
+        LatencyRecorder.Summary ui = previews.summarize(elapsed);
+        LatencyRecorder.Summary api = renders.summarize(elapsed);
+        long perSession = options.uiSessions() == 0 ? 0 : Math.max(0, retained - baseline) / options.uiSessions();
+
+        System.out.println();
+        System.out.println(ui.format());
+        System.out.println(api.format());
+        System.out.printf("heap         peak %6.1f MB of %6.1f MB   retained %6.1f MB (%+.1f MB under load)%n",
+                mb(peak), mb(max), mb(retained), mb(retained - baseline));
+        System.out.printf("gc           %d collections, %d ms (%.1f%% of wall time)%n",
+                gcCount, gcMillis, 100.0 * gcMillis / (elapsed / 1e6));
+        System.out.printf("per session  %.1f KB retained%n", perSession / 1024.0);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options);
+        result.put("uiPreview", ui);
+        result.put("apiRender", api);
+        result.put("heap", Map.of("peakBytes", peak, "maxBytes", max, "baselineBytes", baseline, "retainedBytes", retained,
+                "retainedPerSessionBytes", perSession));
+        result.put("gc", Map.of("collections", gcCount, "millis", gcMillis));
+        Files.createDirectories(options.report().toAbsolutePath().getParent());
+        new ObjectMapper().findAndRegisterModules().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(options.report().toFile(), result);
+        System.out.println("Results written to " + options.report());
+    }
+
+    private static SimulatedPreviewSession.Listener listener(LatencyRecorder recorder) {
+        return new SimulatedPreviewSession.Listener() {
+            @Override
+            public void rendered(long latencyNanos) {
+                recorder.record(latencyNanos);
+            }
+
+            @Override
+            public void rejected() {
+                recorder.rejected();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                recorder.error();
+            }
+        };
+    }
+
+    static String json(int rows) {
+        StringBuilder json = new StringBuilder("{\"user\": {\"firstName\": \"Jane\"}, \"orders\": [");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\": %d, \"product\": \"Product %d\", \"price\": %d.99, \"shipped\": %b}"
+                    .formatted(i, i, i % 100, i % 3 == 0));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + '"';
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static void pause(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param editInterval time between value changes while a user types
+     * @param burst        value changes per typing burst
+     * @param thinkTime    average pause between bursts
+     * @param rows         orders in the data each render is given
+     * @param appArgs      everything else, passed on to the application
+     */
+    record Options(int uiSessions, int apiClients, Duration warmup, Duration duration, Duration editInterval,
+                   int burst, Duration thinkTime, int rows, Path report, List<String> appArgs) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>(Map.of(
+                    "ui-sessions", "20", "api-clients", "10", "warmup", "15s", "duration", "60s",
+                    "edit-interval", "500ms", "burst", "5", "think-time", "3s", "rows", "100",
+                    "report", "target/loadtest-result.json"));
+            List<String> appArgs = new ArrayList<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : null;
+                if (name != null && values.containsKey(name)) {
+                    values.put(name, arg.substring(separator + 1));
+                } else {
+                    appArgs.add(arg);
+                }
+            }
+            return new Options(Integer.parseInt(values.get("ui-sessions")), Integer.parseInt(values.get("api-clients")),
+                    DurationStyle.detectAndParse(values.get("warmup")), DurationStyle.detectAndParse(values.get("duration")),
+                    DurationStyle.detectAndParse(values.get("edit-interval")), Integer.parseInt(values.get("burst")),
+                    DurationStyle.detectAndParse(values.get("think-time")), Integer.parseInt(values.get("rows")),
+                    Path.of(values.get("report")), List.copyOf(appArgs));
+        }
+    }
+}
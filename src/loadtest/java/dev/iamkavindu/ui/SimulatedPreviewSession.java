@@ -0,0 +1,82 @@
+package dev.iamkavindu.ui;
+
+import com.vaadin.flow.server.Command;
+import dev.iamkavindu.errors.RenderRejectedException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.JsonProjection;
+import dev.iamkavindu.service.OutputPipeline;
+import dev.iamkavindu.service.RenderedOutput;
+import dev.iamkavindu.service.TemplateAnalyzer;
+import dev.iamkavindu.service.VelocityTemplateService;
+import org.apache.velocity.Template;
+
+import java.util.Map;
+
+/**
+ * The server side of one editor session, without a browser: each simulated edit goes through
+ * a {@link RenderScheduler} and does the same work as a live preview of {@link MainView},
+ * so coalescing, cancellation and the render worker pool behave as they do for real users.
+ * What Vaadin itself costs per session, its component tree and push channel, is not included.
+ */
+public final class SimulatedPreviewSession {
+
+    /**
+     * Receives the outcome of every preview that reached the screen, or failed to.
+     */
+    public interface Listener {
+
+        void rendered(long latencyNanos);
+
+        void rejected();
+
+        void failed(Exception e);
+    }
+
+    private final VelocityTemplateService velocityTemplateService;
+    private final JsonParserService jsonParserService;
+    private final TemplateAnalyzer templateAnalyzer;
+    private final RenderScheduler renderScheduler;
+    private final Listener listener;
+
+    public SimulatedPreviewSession(VelocityTemplateService velocityTemplateService,
+                                   JsonParserService jsonParserService,
+                                   TemplateAnalyzer templateAnalyzer,
+                                   Listener listener) {
+        this.velocityTemplateService = velocityTemplateService;
+        this.jsonParserService = jsonParserService;
+        this.templateAnalyzer = templateAnalyzer;
+        this.listener = listener;
+        // Updates are applied on the render thread; a real session would queue them for its UI
+        this.renderScheduler = new RenderScheduler(velocityTemplateService.renderLimits(), Command::execute);
+    }
+
+    /**
+     * One value change of the editors, as sent by the browser after the live render delay.
+     */
+    public void edit(String template, String json) {
+        long submitted = System.nanoTime();
+        renderScheduler.submit(budget -> {
+            try {
+                Template compiled = velocityTemplateService.compile(template, RenderChannel.UI);
+                JsonProjection projection = templateAnalyzer.analyze(compiled).projection();
+                Map<String, Object> context = jsonParserService.parseJsonToContext(json, projection, RenderChannel.UI);
+                byte[] document;
+                try (RenderedOutput output = velocityTemplateService.mergeUtf8(compiled, context, RenderChannel.UI, budget,
+                        OutputPipeline.NONE)) {
+                    document = output.toByteArray();
+                }
+                return () -> listener.rendered(System.nanoTime() - submitted);
+            } catch (RenderRejectedException e) {
+                return listener::rejected;
+            } catch (TemplateRenderException | IllegalArgumentException e) {
+                return () -> listener.failed(e);
+            }
+        });
+    }
+
+    public void close() {
+        renderScheduler.cancel();
+    }
+}
@@ -0,0 +1,67 @@
+package dev.iamkavindu.api;
+
+import dev.iamkavindu.errors.InvalidOutputException;
+import dev.iamkavindu.errors.RenderLimitExceededException;
+import dev.iamkavindu.errors.RenderRejectedException;
+import dev.iamkavindu.errors.TemplateNotFoundException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps render failures to RFC 7807 problem responses for API callers.
+ */
+@RestControllerAdvice(basePackageClasses = ApiExceptionHandler.class)
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(TemplateRenderException.class)
+    public ProblemDetail handleTemplateRenderException(TemplateRenderException e) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Template render failed", e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidOutputException.class)
+    public ProblemDetail handleInvalidOutputException(InvalidOutputException e) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Invalid render output", e.getMessage());
+    }
+
+    @ExceptionHandler(RenderLimitExceededException.class)
+    public ProblemDetail handleRenderLimitExceededException(RenderLimitExceededException e) {
+        return problem(HttpStatus.UNPROCESSABLE_ENTITY, "Render limit exceeded", e.getMessage());
+    }
+
+    /**
+     * Shed load quickly: the render never started, so the client may retry it as is.
+     */
+    @ExceptionHandler(RenderRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleRenderRejectedException(RenderRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problem(HttpStatus.TOO_MANY_REQUESTS, "Renderer busy", e.getMessage()));
+    }
+
+    @ExceptionHandler(TemplateNotFoundException.class)
+    public ProblemDetail handleTemplateNotFoundException(TemplateNotFoundException e) {
+        return problem(HttpStatus.NOT_FOUND, "Template not found", e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgumentException(IllegalArgumentException e) {
+        return problem(HttpStatus.BAD_REQUEST, "Invalid render request", e.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ProblemDetail handleHttpMessageNotReadableException(HttpMessageNotReadableException e) {
+        return problem(HttpStatus.BAD_REQUEST, "Invalid render request", "Request body is not valid JSON");
+    }
+
+    private static ProblemDetail problem(HttpStatus status, String title, String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        problem.setTitle(title);
+        return problem;
+    }
+}
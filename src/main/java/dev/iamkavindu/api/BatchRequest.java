@@ -0,0 +1,190 @@
+package dev.iamkavindu.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.service.JsonParserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+/**
+ * Streaming view of a batch render request body.
+ * Two formats are accepted, neither of which is read into memory as a whole:
+ * <ul>
+ *     <li>JSON: {@code {"template": "...", "records": [{...}, {...}]}}, with the template before the records</li>
+ *     <li>NDJSON: a first line {@code {"template": "..."}} followed by one JSON record per line</li>
+ * </ul>
+ */
+final class BatchRequest {
+
+    private final String template;
+    private final Iterator<Supplier<Map<String, Object>>> records;
+
+    private BatchRequest(String template, Iterator<Supplier<Map<String, Object>>> records) {
+        this.template = template;
+        this.records = records;
+    }
+
+    String template() {
+        return template;
+    }
+
+    Iterator<Supplier<Map<String, Object>>> records() {
+        return records;
+    }
+
+    static BatchRequest fromJson(InputStream body, JsonParserService jsonParserService) throws IOException {
+        JsonParser parser = jsonParserService.createParser(body);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Batch request must be a JSON object");
+        }
+
+        String template = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("template".equals(field) && value == JsonToken.VALUE_STRING) {
+                template = parser.getText();
+            } else if ("records".equals(field) && value == JsonToken.START_ARRAY) {
+                if (template == null) {
+                    throw new IllegalArgumentException("\"template\" must come before \"records\"");
+                }
+                return new BatchRequest(template, new JsonArrayRecords(parser, jsonParserService));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        throw new IllegalArgumentException("Batch request needs a \"template\" string and a \"records\" array");
+    }
+
+    static BatchRequest fromNdjson(InputStream body, JsonParserService jsonParserService) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        NdjsonRecords lines = new NdjsonRecords(reader, jsonParserService);
+        if (!lines.hasNext()) {
+            throw new IllegalArgumentException("Batch request must start with a {\"template\": ...} line");
+        }
+        Object template = lines.next().get().get("template");
+        if (!(template instanceof String text)) {
+            throw new IllegalArgumentException("First batch line must contain a \"template\" string");
+        }
+        return new BatchRequest(text, lines);
+    }
+
+    /**
+     * Reads array elements one at a time on the calling thread; elements are small
+     * compared to the render itself, and a JSON stream cannot be split safely anyway.
+     * For the same reason, malformed JSON ends the batch: it is reported as the record it
+     * was found in, since earlier results may already have been sent.
+     */
+    private static final class JsonArrayRecords implements Iterator<Supplier<Map<String, Object>>> {
+
+        private final JsonParser parser;
+        private final JsonParserService jsonParserService;
+        private JsonToken current;
+        private IllegalArgumentException failure;
+        private boolean ended;
+
+        private JsonArrayRecords(JsonParser parser, JsonParserService jsonParserService) {
+            this.parser = parser;
+            this.jsonParserService = jsonParserService;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ended) {
+                return false;
+            }
+            if (current == null && failure == null) {
+                try {
+                    current = parser.nextToken();
+                } catch (IOException e) {
+                    failure = invalid(e);
+                }
+            }
+            return failure != null || current != null && current != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Supplier<Map<String, Object>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonToken token = current;
+            current = null;
+            if (failure == null) {
+                try {
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        return () -> {
+                            throw new IllegalArgumentException("Record must be a JSON object");
+                        };
+                    }
+                    Map<String, Object> record = jsonParserService.readMap(parser);
+                    return () -> record;
+                } catch (IOException e) {
+                    failure = invalid(e);
+                } catch (IllegalArgumentException e) {
+                    failure = e;
+                }
+            }
+            ended = true;
+            IllegalArgumentException reported = failure;
+            return () -> {
+                throw reported;
+            };
+        }
+
+        private static IllegalArgumentException invalid(IOException e) {
+            return new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hands out raw lines; parsing happens inside the supplier, i.e. on the render worker.
+     */
+    private static final class NdjsonRecords implements Iterator<Supplier<Map<String, Object>>> {
+
+        private final BufferedReader reader;
+        private final JsonParserService jsonParserService;
+        private String line;
+
+        private NdjsonRecords(BufferedReader reader, JsonParserService jsonParserService) {
+            this.reader = reader;
+            this.jsonParserService = jsonParserService;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null || line.isBlank()) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Supplier<Map<String, Object>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String json = line;
+            line = null;
+            return () -> jsonParserService.parseJsonToContext(json, RenderChannel.BATCH);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package dev.iamkavindu.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.iamkavindu.cache.ContentHash;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.repository.TemplateId;
+import dev.iamkavindu.service.BatchRenderService;
+import dev.iamkavindu.service.BatchResult;
+import dev.iamkavindu.service.GlobalContext;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.OutputPipeline;
+import dev.iamkavindu.service.RenderBudget;
+import dev.iamkavindu.service.RenderOutputCache;
+import dev.iamkavindu.service.RenderedOutput;
+import dev.iamkavindu.service.TemplateAnalysis;
+import dev.iamkavindu.service.TemplateAnalyzer;
+import dev.iamkavindu.service.TemplateLibraryService;
+import dev.iamkavindu.service.VelocityTemplateService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.velocity.Template;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stateless HTTP API for rendering templates without a Vaadin session.
+ * Output that can be cached is encoded into a pooled UTF-8 buffer, kept in the
+ * {@link RenderOutputCache} and served with a {@code Content-Length}, compressed in advance for
+ * clients that accept gzip. Everything else, including batch results, is streamed to the response
+ * as Velocity produces it, so no request holds its whole output in memory; a render that fails
+ * once the container has flushed part of it ends with a truncated response instead of an error.
+ */
+@RestController
+@RequestMapping("/api")
+public class RenderController {
+
+    private final VelocityTemplateService velocityTemplateService;
+    private final BatchRenderService batchRenderService;
+    private final JsonParserService jsonParserService;
+    private final TemplateLibraryService templateLibraryService;
+    private final RenderOutputCache renderOutputCache;
+    private final TemplateAnalyzer templateAnalyzer;
+    private final GlobalContext globalContext;
+    private final ObjectWriter resultWriter;
+
+    public RenderController(VelocityTemplateService velocityTemplateService,
+                            BatchRenderService batchRenderService,
+                            JsonParserService jsonParserService,
+                            TemplateLibraryService templateLibraryService,
+                            RenderOutputCache renderOutputCache,
+                            TemplateAnalyzer templateAnalyzer,
+                            GlobalContext globalContext,
+                            ObjectMapper objectMapper) {
+        this.velocityTemplateService = velocityTemplateService;
+        this.batchRenderService = batchRenderService;
+        this.jsonParserService = jsonParserService;
+        this.templateLibraryService = templateLibraryService;
+        this.renderOutputCache = renderOutputCache;
+        this.templateAnalyzer = templateAnalyzer;
+        this.globalContext = globalContext;
+        this.resultWriter = objectMapper.writerFor(BatchResult.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Renders a single template. Output of deterministic templates carries an {@code ETag};
+     * a request whose {@code If-None-Match} matches it gets {@code 304} without rendering.
+     * The body is read as it was sent, so the fingerprint covers the data by a hash of its text,
+     * and the data is only bound once neither a {@code 304} nor cached output can answer the request.
+     */
+    @PostMapping(path = "/render", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void render(@RequestBody byte[] body, HttpServletRequest httpRequest, HttpServletResponse response)
+            throws TemplateRenderException, IOException {
+        RenderRequest request = RenderRequest.read(body, jsonParserService);
+        // Resolved before anything is written, so an unknown id or format becomes a clean 404 or 400
+        Template compiled = compile(request);
+        OutputPipeline pipeline = request.pipeline();
+
+        Optional<ContentHash> fingerprint = renderOutputCache.fingerprint(compiled, ContentHash.of(body), pipeline);
+        if (fingerprint.isPresent()) {
+            ETag etag = ETag.create(fingerprint.get().toHex());
+            if (matchesAny(httpRequest.getHeaders(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setHeader(HttpHeaders.ETAG, etag.formattedTag());
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            RenderOutputCache.CachedOutput cached = renderOutputCache.get(fingerprint.get());
+            if (cached != null && cached.gzipped() != null
+                    && acceptsGzip(httpRequest.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+                // Servlet containers leave responses that already have a Content-Encoding alone
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                writeOutput(response, pipeline, etag, cached.gzipped().length).write(cached.gzipped());
+                return;
+            }
+            if (cached != null) {
+                writeOutput(response, pipeline, etag, cached.bytes().length).write(cached.bytes());
+                return;
+            }
+        }
+
+        // Only now that the output has to be rendered
+        Map<String, Object> data = bindData(request, compiled);
+        if (fingerprint.isEmpty()) {
+            response.setContentType(pipeline.format().mediaType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            try {
+                velocityTemplateService.merge(compiled, data, response.getWriter(), RenderChannel.API,
+                        RenderBudget.start(velocityTemplateService.renderLimits()), pipeline);
+            } catch (TemplateRenderException e) {
+                // Drop partial output so the error response can be written instead, unless some of it was flushed
+                if (!response.isCommitted()) {
+                    response.reset();
+                }
+                throw e;
+            }
+            return;
+        }
+
+        try (RenderedOutput output = velocityTemplateService.mergeUtf8(compiled, data, RenderChannel.API,
+                RenderBudget.start(velocityTemplateService.renderLimits()), pipeline)) {
+            renderOutputCache.put(fingerprint.get(), compiled, output);
+            output.writeTo(writeOutput(response, pipeline, ETag.create(fingerprint.get().toHex()), output.length()));
+        }
+    }
+
+    /**
+     * Checks a template against sample data without rendering it: reports references that resolve
+     * to nothing and macros that are not defined, along with what the template reads and pulls in.
+     * A template that does not parse is reported as {@code 422}, like a failed render.
+     */
+    @PostMapping(path = "/render/validate", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ValidationReport validateTemplate(@RequestBody byte[] body) throws TemplateRenderException {
+        RenderRequest request = RenderRequest.read(body, jsonParserService);
+        TemplateAnalysis analysis = templateAnalyzer.analyze(compile(request));
+        Map<String, Object> data = request.data() != null
+                ? jsonParserService.parseJsonToContext(request.data(), RenderChannel.API)
+                : Map.of();
+        return ValidationReport.of(analysis, templateAnalyzer.undefinedReferences(analysis, data, globalContext));
+    }
+
+    /**
+     * Renders one template against many records and streams one NDJSON result line per
+     * record, in input order. Failed records are reported inline and do not stop the batch.
+     */
+    @PostMapping(path = "/render/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void renderBatch(HttpServletRequest request, HttpServletResponse response)
+            throws TemplateRenderException, IOException {
+        BatchRequest batch = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? BatchRequest.fromNdjson(request.getInputStream(), jsonParserService)
+                : BatchRequest.fromJson(request.getInputStream(), jsonParserService);
+        Template compiled = velocityTemplateService.compile(batch.template(), RenderChannel.BATCH);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream output = response.getOutputStream();
+        batchRenderService.render(compiled, batch.records(), result -> {
+            resultWriter.writeValue(output, result);
+            output.write('\n');
+        });
+    }
+
+    /**
+     * Binds the request's data like data typed into the editor: through the shared context cache,
+     * lazily when it is large and cut down to what the template reads.
+     */
+    private Map<String, Object> bindData(RenderRequest request, Template compiled) {
+        if (request.data() == null) {
+            return Map.of();
+        }
+        return jsonParserService.parseJsonToContext(request.data(), templateAnalyzer.analyze(compiled).projection(),
+                RenderChannel.API);
+    }
+
+    private Template compile(RenderRequest request) throws TemplateRenderException {
+        validate(request);
+        return request.templateId() != null
+                ? templateLibraryService.get(TemplateId.parse(request.templateId()), RenderChannel.API)
+                : velocityTemplateService.compile(request.template(), RenderChannel.API);
+    }
+
+    private static OutputStream writeOutput(HttpServletResponse response, OutputPipeline pipeline, ETag etag, int length)
+            throws IOException {
+        response.setContentType(pipeline.format().mediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(length);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag.formattedTag());
+        }
+        return response.getOutputStream();
+    }
+
+    private static boolean matchesAny(Enumeration<String> ifNoneMatch, ETag etag) {
+        while (ifNoneMatch.hasMoreElements()) {
+            for (ETag candidate : ETag.parse(ifNoneMatch.nextElement())) {
+                if (candidate.isWildcard() || candidate.compare(etag, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(Enumeration<String> acceptEncoding) {
+        while (acceptEncoding.hasMoreElements()) {
+            for (String coding : acceptEncoding.nextElement().split(",")) {
+                String[] parameters = coding.split(";");
+                if (parameters[0].strip().equalsIgnoreCase("gzip")) {
+                    return parameters.length == 1 || !parameters[1].strip().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void validate(RenderRequest request) {
+        if (request.template() == null && request.templateId() == null) {
+            throw new IllegalArgumentException("Template cannot be null");
+        }
+        if (request.template() != null && request.templateId() != null) {
+            throw new IllegalArgumentException("Specify either a template or a templateId, not both");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.iamkavindu.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.OutputPipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of a render API call: the Velocity template and the data it is merged with.
+ * Instead of the template text, a stored template can be referenced by id, e.g. {@code invoice} or {@code invoice@3}.
+ * The output is served as {@code format} ({@code text} by default, or {@code html}, {@code xml}, {@code json}, {@code csv}),
+ * with reference values escaped for {@code escape} and passed through the post-processing {@code stages}, in order.
+ *
+ * @param data the {@code data} object as JSON text, exactly as sent, or null if there is none. It is bound by
+ *             {@link JsonParserService#parseJsonToContext}, like data typed into the editor, so it shares that
+ *             cache, lazy binding and projection
+ */
+public record RenderRequest(String template, String templateId, String data,
+                            String format, String escape, List<String> stages) {
+
+    /**
+     * Reads a request body. Every field but {@code data} is read as usual; the data object is
+     * only checked for syntax by the tokenizer and cut out of the body as it is.
+     *
+     * @throws IllegalArgumentException if the body is not a valid request
+     */
+    static RenderRequest read(byte[] body, JsonParserService jsonParserService) {
+        String template = null;
+        String templateId = null;
+        String data = null;
+        String format = null;
+        String escape = null;
+        List<String> stages = null;
+        try (JsonParser parser = jsonParserService.createParser(new ByteArrayInputStream(body))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Render request must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "template" -> template = text(parser, field);
+                    case "templateId" -> templateId = text(parser, field);
+                    case "format" -> format = text(parser, field);
+                    case "escape" -> escape = text(parser, field);
+                    case "stages" -> stages = texts(parser, field);
+                    case "data" -> data = object(parser, body, field);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Invalid JSON format: unexpected content after the request");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+        return new RenderRequest(template, templateId, data, format, escape, stages);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the format, escaping or a stage is unknown
+     */
+    public OutputPipeline pipeline() {
+        return format == null && escape == null && stages == null
+                ? OutputPipeline.NONE
+                : OutputPipeline.of(format, escape, stages);
+    }
+
+    private static String text(JsonParser parser, String field) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> throw new IllegalArgumentException("\"" + field + "\" must be a string");
+        };
+    }
+
+    private static List<String> texts(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("\"" + field + "\" must be an array of strings");
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                throw new IllegalArgumentException("\"" + field + "\" must be an array of strings");
+            }
+            values.add(parser.getText());
+        }
+        return values;
+    }
+
+    private static String object(JsonParser parser, byte[] body, String field) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("\"" + field + "\" must be a JSON object");
+        }
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        int end = (int) parser.currentLocation().getByteOffset();
+        return new String(body, start, end - start, StandardCharsets.UTF_8);
+    }
+}
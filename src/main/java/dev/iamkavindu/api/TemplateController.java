@@ -0,0 +1,62 @@
+package dev.iamkavindu.api;
+
+import dev.iamkavindu.errors.TemplateNotFoundException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.repository.StoredTemplate;
+import dev.iamkavindu.repository.TemplateId;
+import dev.iamkavindu.service.TemplateLibraryService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Manages the named templates that {@code /api/render} can render by {@code templateId}.
+ * Every save creates a new version; earlier versions stay available by {@code name@version}.
+ */
+@RestController
+@RequestMapping("/api/templates")
+public class TemplateController {
+
+    private final TemplateLibraryService templateLibraryService;
+
+    public TemplateController(TemplateLibraryService templateLibraryService) {
+        this.templateLibraryService = templateLibraryService;
+    }
+
+    @GetMapping
+    public List<TemplateVersion> list() {
+        return templateLibraryService.latestVersions().entrySet().stream()
+                .map(entry -> new TemplateVersion(entry.getKey(), entry.getValue(), null))
+                .toList();
+    }
+
+    /**
+     * Stores a new version of the template. Templates that do not parse are rejected.
+     */
+    @PutMapping(path = "/{name}", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public TemplateVersion save(@PathVariable String name, @RequestBody String source)
+            throws TemplateRenderException, IOException {
+        return TemplateVersion.of(templateLibraryService.save(name, source, RenderChannel.API));
+    }
+
+    @GetMapping(path = "/{name}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String source(@PathVariable String name, @RequestParam(defaultValue = "0") int version)
+            throws TemplateNotFoundException, IOException {
+        TemplateId id = new TemplateId(name, version);
+        return templateLibraryService.find(id)
+                .map(StoredTemplate::source)
+                .orElseThrow(() -> new TemplateNotFoundException("No stored template: " + id));
+    }
+}
@@ -0,0 +1,17 @@
+package dev.iamkavindu.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.iamkavindu.repository.StoredTemplate;
+
+import java.time.Instant;
+
+/**
+ * Stored template version as reported by the template API, without its source.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TemplateVersion(String name, int version, Instant lastModified) {
+
+    static TemplateVersion of(StoredTemplate template) {
+        return new TemplateVersion(template.name(), template.version(), Instant.ofEpochMilli(template.lastModified()));
+    }
+}
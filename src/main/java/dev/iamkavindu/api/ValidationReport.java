@@ -0,0 +1,44 @@
+package dev.iamkavindu.api;
+
+import dev.iamkavindu.service.TemplateAnalysis;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Result of validating a template against sample data, without rendering it.
+ *
+ * @param valid               whether every reference and macro the template uses is defined
+ * @param undefinedReferences references that resolve to nothing, in template order
+ * @param undefinedMacros     macros called but defined neither in the template nor in the macro library
+ * @param references          data paths the template reads, see {@link TemplateAnalysis#references()}
+ * @param includes            templates pulled in by name with {@code #parse} or {@code #include}
+ */
+public record ValidationReport(boolean valid,
+                               List<UndefinedReference> undefinedReferences,
+                               Set<String> undefinedMacros,
+                               Set<String> references,
+                               Set<String> macrosDefined,
+                               Set<String> macrosUsed,
+                               Set<String> includes) {
+
+    /**
+     * @param line   1-based line of the reference in the template
+     * @param column 1-based column of the reference in the template
+     */
+    public record UndefinedReference(String reference, int line, int column) {
+    }
+
+    static ValidationReport of(TemplateAnalysis analysis, List<TemplateAnalysis.ReferenceUse> undefined) {
+        Set<String> undefinedMacros = new TreeSet<>(analysis.macrosUsed());
+        undefinedMacros.removeAll(analysis.macrosDefined());
+        undefinedMacros.removeAll(analysis.libraryMacros());
+        List<UndefinedReference> undefinedReferences = undefined.stream()
+                .map(use -> new UndefinedReference(use.reference(), use.line(), use.column()))
+                .toList();
+        return new ValidationReport(undefinedReferences.isEmpty() && undefinedMacros.isEmpty(),
+                undefinedReferences, undefinedMacros, analysis.references(),
+                analysis.macrosDefined(), analysis.macrosUsed(), analysis.includes());
+    }
+}
@@ -0,0 +1,12 @@
+package dev.iamkavindu.cache;
+
+/**
+ * Point-in-time snapshot of a {@link WeightedLruCache}.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size, long weightBytes) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
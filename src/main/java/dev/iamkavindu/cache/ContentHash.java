@@ -0,0 +1,59 @@
+package dev.iamkavindu.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 128-bit content fingerprint used as a cache key.
+ * Derived from the first half of a SHA-256 digest, so two different inputs
+ * never share an entry in practice, even when the input is user supplied.
+ */
+public record ContentHash(long high, long low) {
+
+    public static ContentHash of(String content) {
+        return of(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ContentHash of(byte[] content) {
+        return ofDigest(sha256().digest(content));
+    }
+
+    /**
+     * A fresh digest, for fingerprints of content that is fed in piece by piece; see {@link #of(MessageDigest)}.
+     */
+    public static MessageDigest newDigest() {
+        return sha256();
+    }
+
+    /**
+     * Completes a digest obtained from {@link #newDigest()}.
+     */
+    public static ContentHash of(MessageDigest digest) {
+        return ofDigest(digest.digest());
+    }
+
+    private static ContentHash ofDigest(byte[] sha256) {
+        ByteBuffer digest = ByteBuffer.wrap(sha256);
+        return new ContentHash(digest.getLong(), digest.getLong());
+    }
+
+    public String toHex() {
+        return HexFormat.of().toHexDigits(high) + HexFormat.of().toHexDigits(low);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
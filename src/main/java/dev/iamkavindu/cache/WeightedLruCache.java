@@ -0,0 +1,233 @@
+package dev.iamkavindu.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded LRU cache limited by both entry count and an approximate weight in bytes.
+ * Entries are evicted from the least recently used end until both limits hold.
+ * Optionally, entries not read for longer than a maximum idle time, or older than a maximum
+ * age, are dropped as well; they are swept on every access and whenever stats are taken,
+ * e.g. by a metrics scrape.
+ * All operations lock the cache briefly; values are never computed under the lock.
+ * A removal listener can release what values hold once the cache lets go of them.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final long maxIdleNanos;
+    private final long maxAgeNanos;
+    private final LongSupplier clock;
+    private final Consumer<? super V> onRemoval;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public WeightedLruCache(int maxEntries, long maxWeightBytes) {
+        this(maxEntries, maxWeightBytes, Duration.ZERO);
+    }
+
+    /**
+     * @param maxIdle how long an entry may go unread before it is dropped; zero keeps entries until evicted
+     */
+    public WeightedLruCache(int maxEntries, long maxWeightBytes, Duration maxIdle) {
+        this(maxEntries, maxWeightBytes, maxIdle, Duration.ZERO);
+    }
+
+    /**
+     * @param maxIdle   how long an entry may go unread before it is dropped; zero keeps entries until evicted
+     * @param onRemoval called, under the cache lock, with every value the cache lets go of: evicted, replaced,
+     *                  invalidated, or not stored in the first place
+     */
+    public WeightedLruCache(int maxEntries, long maxWeightBytes, Duration maxIdle, Consumer<? super V> onRemoval) {
+        this(maxEntries, maxWeightBytes, maxIdle, Duration.ZERO, System::nanoTime, onRemoval);
+    }
+
+    /**
+     * @param maxIdle how long an entry may go unread before it is dropped; zero keeps entries until evicted
+     * @param maxAge  how long after it was stored an entry is dropped, read or not; zero for no limit
+     */
+    public WeightedLruCache(int maxEntries, long maxWeightBytes, Duration maxIdle, Duration maxAge) {
+        this(maxEntries, maxWeightBytes, maxIdle, maxAge, System::nanoTime);
+    }
+
+    WeightedLruCache(int maxEntries, long maxWeightBytes, Duration maxIdle, Duration maxAge, LongSupplier clock) {
+        this(maxEntries, maxWeightBytes, maxIdle, maxAge, clock, value -> {
+        });
+    }
+
+    WeightedLruCache(int maxEntries, long maxWeightBytes, Duration maxIdle, Duration maxAge, LongSupplier clock,
+                     Consumer<? super V> onRemoval) {
+        if (maxEntries < 0 || maxWeightBytes < 0 || maxIdle.isNegative() || maxAge.isNegative()) {
+            throw new IllegalArgumentException("Cache limits cannot be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.maxAgeNanos = maxAge.toNanos();
+        this.clock = clock;
+        this.onRemoval = onRemoval;
+    }
+
+    public V get(K key) {
+        Entry<V> entry;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            evictIdle(now);
+            entry = entries.get(key);
+            if (entry != null && isTooOld(entry, now)) {
+                remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            if (entry != null) {
+                entry.lastAccessNanos = now;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value with its approximate retained size. Values heavier than the
+     * whole cache budget are not stored at all.
+     */
+    public void put(K key, V value, long weight) {
+        synchronized (this) {
+            if (maxEntries == 0 || weight > maxWeightBytes) {
+                onRemoval.accept(value);
+                return;
+            }
+            long now = clock.getAsLong();
+            Entry<V> previous = entries.put(key, new Entry<>(value, weight, now));
+            if (previous != null) {
+                weightBytes -= previous.weight;
+                onRemoval.accept(previous.value);
+            }
+            weightBytes += weight;
+            evictOverflow();
+            evictIdle(now);
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    /**
+     * Drops every entry whose value matches, e.g. everything derived from a resource that changed.
+     * Looks at all entries, so it is meant for rare events rather than every request.
+     */
+    public synchronized void invalidateIf(Predicate<? super V> stale) {
+        Iterator<Entry<V>> all = entries.values().iterator();
+        while (all.hasNext()) {
+            Entry<V> entry = all.next();
+            if (stale.test(entry.value)) {
+                weightBytes -= entry.weight;
+                all.remove();
+                onRemoval.accept(entry.value);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.values().forEach(entry -> onRemoval.accept(entry.value));
+        entries.clear();
+        weightBytes = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        long now = clock.getAsLong();
+        evictIdle(now);
+        evictTooOld(now);
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weightBytes);
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weightBytes > maxWeightBytes) && eldest.hasNext()) {
+            Entry<V> entry = eldest.next().getValue();
+            weightBytes -= entry.weight;
+            eldest.remove();
+            evictions.increment();
+            onRemoval.accept(entry.value);
+        }
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weightBytes -= removed.weight;
+            onRemoval.accept(removed.value);
+        }
+    }
+
+    private boolean isTooOld(Entry<V> entry, long now) {
+        return maxAgeNanos != 0 && now - entry.createdNanos > maxAgeNanos;
+    }
+
+    // Entries are kept in access order, not insertion order, so this has to look at all of them
+    private void evictTooOld(long now) {
+        if (maxAgeNanos == 0) {
+            return;
+        }
+        Iterator<Entry<V>> all = entries.values().iterator();
+        while (all.hasNext()) {
+            Entry<V> entry = all.next();
+            if (isTooOld(entry, now)) {
+                weightBytes -= entry.weight;
+                all.remove();
+                evictions.increment();
+                onRemoval.accept(entry.value);
+            }
+        }
+    }
+
+    private void evictIdle(long now) {
+        if (maxIdleNanos == 0) {
+            return;
+        }
+        // Access order puts the longest idle entries first
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry<V> entry = eldest.next();
+            if (now - entry.lastAccessNanos <= maxIdleNanos) {
+                return;
+            }
+            weightBytes -= entry.weight;
+            eldest.remove();
+            evictions.increment();
+            onRemoval.accept(entry.value);
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long weight;
+        private final long createdNanos;
+        private long lastAccessNanos;
+
+        private Entry(V value, long weight, long createdNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.createdNanos = createdNanos;
+            this.lastAccessNanos = createdNanos;
+        }
+    }
+}
@@ -1,22 +1,114 @@
 package dev.iamkavindu.config;
 
-import org.apache.velocity.VelocityContext;
+import dev.iamkavindu.repository.EmbeddedTemplateRepository;
+import dev.iamkavindu.repository.FileSystemTemplateRepository;
+import dev.iamkavindu.repository.TemplateRepository;
+import dev.iamkavindu.repository.WorkspaceStore;
+import dev.iamkavindu.service.GlobalContext;
+import dev.iamkavindu.service.InlineTemplateLoader;
+import dev.iamkavindu.service.MacroLibrary;
+import dev.iamkavindu.service.RenderLimits;
+import dev.iamkavindu.service.RepositoryTemplateLoader;
 import org.apache.velocity.app.VelocityEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(VelocityEngineProperties.class)
 public class AppConfig {
 
     @Bean
-    public VelocityEngine velocityEngine() {
-        VelocityEngine engine = new VelocityEngine();
-        engine.init();
-        return engine;
+    public InlineTemplateLoader inlineTemplateLoader() {
+        return new InlineTemplateLoader();
+    }
+
+    /**
+     * Store of named templates: {@code filesystem} keeps one file per version under the location,
+     * {@code embedded} keeps everything in a single zip archive at the location.
+     */
+    @Bean
+    public TemplateRepository templateRepository(@Value("${velocity-renderer.repository.type:filesystem}") String type,
+                                                 @Value("${velocity-renderer.repository.location:${user.home}/.velocity-renderer/templates}") Path location) {
+        return switch (type) {
+            case "filesystem" -> new FileSystemTemplateRepository(location);
+            case "embedded" -> new EmbeddedTemplateRepository(location);
+            default -> throw new IllegalArgumentException("Unknown template repository type: " + type);
+        };
+    }
+
+    /**
+     * Timers for background work shared by the whole application, such as write-behind flushes
+     * and resetting UI feedback. Every task runs on a virtual thread of its own.
+     */
+    @Bean
+    public SimpleAsyncTaskScheduler taskScheduler() {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setVirtualThreads(true);
+        scheduler.setThreadNamePrefix("background-");
+        return scheduler;
+    }
+
+    /**
+     * Server-side copies of editor workspaces; without it, workspaces live in the browser's local storage only.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "velocity-renderer.workspace.store", havingValue = "server")
+    public WorkspaceStore workspaceStore(@Value("${velocity-renderer.workspace.location:${user.home}/.velocity-renderer/workspaces}") Path location,
+                                         @Value("${velocity-renderer.workspace.max-chars:2097152}") long maxChars,
+                                         @Value("${velocity-renderer.workspace.flush-interval:1s}") Duration flushInterval,
+                                         @Value("${velocity-renderer.workspace.compaction-interval:10m}") Duration compactionInterval,
+                                         TaskScheduler taskScheduler) throws IOException {
+        return new WorkspaceStore(location, maxChars, taskScheduler, flushInterval, compactionInterval);
+    }
+
+    @Bean
+    public RepositoryTemplateLoader repositoryTemplateLoader(
+            TemplateRepository templateRepository,
+            @Value("${velocity-renderer.repository.modification-check-interval:10}") int modificationCheckInterval) {
+        return new RepositoryTemplateLoader(templateRepository, modificationCheckInterval);
+    }
+
+    @Bean
+    public RenderLimits renderLimits(@Value("${velocity-renderer.limits.timeout:5s}") Duration timeout,
+                                     @Value("${velocity-renderer.limits.max-output-chars:10485760}") long maxOutputChars,
+                                     @Value("${velocity-renderer.limits.max-loop-iterations:1000000}") long maxLoopIterations,
+                                     @Value("${velocity-renderer.limits.max-macro-depth:20}") int maxMacroDepth) {
+        return new RenderLimits(timeout, maxOutputChars, maxLoopIterations, maxMacroDepth);
+    }
+
+    @Bean
+    public VelocityEngine velocityEngine(VelocityEngineProperties engineProperties,
+                                         InlineTemplateLoader inlineTemplateLoader,
+                                         RepositoryTemplateLoader repositoryTemplateLoader,
+                                         RenderLimits renderLimits) {
+        return new VelocityEngineFactory(engineProperties)
+                .create(inlineTemplateLoader, repositoryTemplateLoader, renderLimits);
+    }
+
+    /**
+     * Macros every template can call, kept as the stored template of the given name.
+     */
+    @Bean
+    public MacroLibrary macroLibrary(VelocityEngine velocityEngine,
+                                     @Value("${velocity-renderer.macros.library:macros}") String name) {
+        return new MacroLibrary(velocityEngine, name);
     }
 
+    /**
+     * Read-only base for every render context. Register shared tools here.
+     */
     @Bean
-    public VelocityContext velocityContext() {
-        return new VelocityContext();
+    public GlobalContext globalContext() {
+        return new GlobalContext(Map.of());
     }
 }
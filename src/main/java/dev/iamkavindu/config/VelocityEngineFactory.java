@@ -0,0 +1,108 @@
+package dev.iamkavindu.config;
+
+import dev.iamkavindu.service.GovernedForeach;
+import dev.iamkavindu.service.InlineTemplateLoader;
+import dev.iamkavindu.service.JsonUberspect;
+import dev.iamkavindu.service.NoCacheDirective;
+import dev.iamkavindu.service.RenderLimits;
+import dev.iamkavindu.service.RepositoryTemplateLoader;
+import dev.iamkavindu.service.StoredTemplateResourceManager;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the shared {@link VelocityEngine} from {@link VelocityEngineProperties}.
+ */
+public class VelocityEngineFactory {
+
+    /**
+     * Touches the types JSON data is bound to, so their method maps are introspected once at startup
+     * instead of by the first render that uses each of them.
+     */
+    private static final String INTROSPECTOR_WARMUP = """
+            #foreach($value in $values)$value.toString()$value.hashCode()#end
+            #foreach($map in $maps)$map.get('key')$map.key$map.size()$map.isEmpty()$map.containsKey('key')\
+            $map.keySet()$map.values()$map.entrySet()#end
+            #foreach($list in $lists)$list.get(0)$list.size()$list.isEmpty()$list.contains(1)$list.indexOf(1)#end
+            #foreach($string in $strings)$string.length()$string.isEmpty()$string.trim()$string.toUpperCase()\
+            $string.substring(0)$string.contains('a')$string.startsWith('a')$string.replace('a', 'b')#end
+            """;
+
+    private final VelocityEngineProperties properties;
+
+    public VelocityEngineFactory(VelocityEngineProperties properties) {
+        this.properties = properties;
+    }
+
+    public VelocityEngine create(InlineTemplateLoader inlineTemplateLoader,
+                                 RepositoryTemplateLoader repositoryTemplateLoader,
+                                 RenderLimits renderLimits) {
+        VelocityEngine engine = new VelocityEngine();
+        // Templates come from requests and the template repository only. There is deliberately no file
+        // loader: it would let #parse and #include read any file under the working directory
+        engine.setProperty(RuntimeConstants.RESOURCE_LOADERS,
+                InlineTemplateLoader.NAME + "," + RepositoryTemplateLoader.NAME);
+        engine.setProperty(loaderProperty(InlineTemplateLoader.NAME, RuntimeConstants.RESOURCE_LOADER_INSTANCE),
+                inlineTemplateLoader);
+        // Parsed inline templates are cached by VelocityTemplateService, not by the resource manager
+        engine.setProperty(loaderProperty(InlineTemplateLoader.NAME, RuntimeConstants.RESOURCE_LOADER_CACHE), false);
+        engine.setProperty(loaderProperty(RepositoryTemplateLoader.NAME, RuntimeConstants.RESOURCE_LOADER_INSTANCE),
+                repositoryTemplateLoader);
+        // Stored templates are cached by the resource manager, which re-reads them when they change
+        engine.setProperty(loaderProperty(RepositoryTemplateLoader.NAME, RuntimeConstants.RESOURCE_LOADER_CACHE), true);
+        engine.setProperty(loaderProperty(RepositoryTemplateLoader.NAME, RuntimeConstants.RESOURCE_LOADER_CHECK_INTERVAL),
+                repositoryTemplateLoader.modificationCheckInterval());
+        // Lets a saved template replace the cached latest version at once, see TemplateLibraryService
+        engine.setProperty(RuntimeConstants.RESOURCE_MANAGER_INSTANCE, new StoredTemplateResourceManager());
+        engine.setProperty(RuntimeConstants.RESOURCE_MANAGER_DEFAULTCACHE_SIZE, properties.resourceCacheSize());
+        // GovernedForeach replaces the built-in #foreach so every iteration is charged to the render's budget
+        engine.setProperty(RuntimeConstants.CUSTOM_DIRECTIVES,
+                GovernedForeach.class.getName() + "," + NoCacheDirective.class.getName());
+        engine.setProperty(RuntimeConstants.VM_MAX_DEPTH, renderLimits.maxMacroDepth());
+        // Macros defined in a template belong to that template, so renders cannot redefine each other's;
+        // shared macros come from the MacroLibrary
+        engine.setProperty(RuntimeConstants.VM_PERM_INLINE_LOCAL, true);
+        if (properties.effectiveJsonFastPath()) {
+            engine.setProperty(RuntimeConstants.UBERSPECT_CLASSNAME, JsonUberspect.class.getName());
+        }
+
+        engine.setProperty(RuntimeConstants.PARSER_POOL_SIZE, properties.effectiveParserPoolSize());
+        engine.setProperty(RuntimeConstants.SPACE_GOBBLING, properties.spaceGobbling());
+        engine.setProperty(RuntimeConstants.RUNTIME_REFERENCES_STRICT, properties.strictMode());
+        engine.setProperty(RuntimeConstants.RUNTIME_LOG_REFERENCE_LOG_INVALID, properties.effectiveLogInvalidReferences());
+        engine.setProperty(RuntimeConstants.RUNTIME_LOG_NAME, properties.logName());
+        engine.init();
+
+        if (properties.effectiveWarmIntrospector()) {
+            warmIntrospector(engine);
+        }
+        return engine;
+    }
+
+    private static void warmIntrospector(VelocityEngine engine) {
+        Map<String, Object> hashMap = new HashMap<>(Map.of("key", 1));
+        Map<String, Object> linkedHashMap = new LinkedHashMap<>(hashMap);
+        List<Object> arrayList = new ArrayList<>(List.of(1));
+
+        VelocityContext context = new VelocityContext();
+        context.put("values", List.of(1, 1L, 1.0, true, BigInteger.ONE, BigDecimal.ONE));
+        context.put("maps", List.of(hashMap, linkedHashMap, Map.of("key", 1)));
+        context.put("lists", List.of(arrayList, List.of(1), List.of(1, 2, 3)));
+        context.put("strings", List.of("a"));
+        engine.evaluate(context, Writer.nullWriter(), "introspector-warmup", INTROSPECTOR_WARMUP);
+    }
+
+    private static String loaderProperty(String loader, String property) {
+        return RuntimeConstants.RESOURCE_LOADER + "." + loader + "." + property;
+    }
+}
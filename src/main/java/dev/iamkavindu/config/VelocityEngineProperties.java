@@ -0,0 +1,88 @@
+package dev.iamkavindu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Tuning of the shared {@code VelocityEngine}, bound from {@code velocity-renderer.engine.*}.
+ * A profile provides the defaults; any setting given explicitly overrides it.
+ *
+ * @param profile              preset the unset settings are taken from
+ * @param parserPoolSize       number of pooled parsers, i.e. how many templates can be parsed concurrently
+ * @param warmIntrospector     whether the introspector cache is filled for JSON-bound types at startup
+ * @param logInvalidReferences whether every reference that cannot be resolved is logged
+ * @param jsonFastPath         whether properties of JSON objects are resolved by a direct map lookup
+ * @param spaceGobbling        whitespace handling around directives: none, bc, lines or structured
+ * @param strictMode           whether undefined references fail the render instead of rendering as is
+ * @param logName              logger the engine logs to; set its level with {@code logging.level.<name>}
+ * @param resourceCacheSize    how many parsed stored templates the resource manager keeps
+ */
+@ConfigurationProperties("velocity-renderer.engine")
+public record VelocityEngineProperties(@DefaultValue("throughput") Profile profile,
+                                       Integer parserPoolSize,
+                                       Boolean warmIntrospector,
+                                       Boolean logInvalidReferences,
+                                       Boolean jsonFastPath,
+                                       @DefaultValue("lines") String spaceGobbling,
+                                       @DefaultValue("false") boolean strictMode,
+                                       @DefaultValue("org.apache.velocity") String logName,
+                                       @DefaultValue("1024") int resourceCacheSize) {
+
+    public enum Profile {
+        /**
+         * Velocity's own defaults.
+         */
+        DEFAULT(20, false, true, false),
+        /**
+         * Tuned for many concurrent renders: one parser per core, introspector cache filled at startup,
+         * direct property access on JSON data and no logging on the render path.
+         */
+        THROUGHPUT(0, true, false, true);
+
+        private final int parserPoolSize;
+        private final boolean warmIntrospector;
+        private final boolean logInvalidReferences;
+        private final boolean jsonFastPath;
+
+        Profile(int parserPoolSize, boolean warmIntrospector, boolean logInvalidReferences, boolean jsonFastPath) {
+            this.parserPoolSize = parserPoolSize;
+            this.warmIntrospector = warmIntrospector;
+            this.logInvalidReferences = logInvalidReferences;
+            this.jsonFastPath = jsonFastPath;
+        }
+    }
+
+    /**
+     * Settings of the given profile with nothing overridden.
+     */
+    public static VelocityEngineProperties of(Profile profile) {
+        return new VelocityEngineProperties(profile, null, null, null, null, "lines", false, "org.apache.velocity", 1024);
+    }
+
+    /**
+     * These settings with the JSON fast path switched on or off.
+     */
+    public VelocityEngineProperties withJsonFastPath(boolean enabled) {
+        return new VelocityEngineProperties(profile, parserPoolSize, warmIntrospector,
+                logInvalidReferences, enabled, spaceGobbling, strictMode, logName, resourceCacheSize);
+    }
+
+    int effectiveParserPoolSize() {
+        if (parserPoolSize != null) {
+            return parserPoolSize;
+        }
+        return profile.parserPoolSize > 0 ? profile.parserPoolSize : Runtime.getRuntime().availableProcessors();
+    }
+
+    boolean effectiveWarmIntrospector() {
+        return warmIntrospector != null ? warmIntrospector : profile.warmIntrospector;
+    }
+
+    boolean effectiveLogInvalidReferences() {
+        return logInvalidReferences != null ? logInvalidReferences : profile.logInvalidReferences;
+    }
+
+    boolean effectiveJsonFastPath() {
+        return jsonFastPath != null ? jsonFastPath : profile.jsonFastPath;
+    }
+}
@@ -0,0 +1,15 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when rendered output is rejected by a post-processing stage, e.g. output that should be JSON but is not.
+ */
+public class InvalidOutputException extends TemplateRenderException {
+
+    public InvalidOutputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidOutputException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render runs more {@code #foreach} iterations than it is allowed to.
+ */
+public class LoopLimitExceededException extends RenderLimitExceededException {
+
+    public LoopLimitExceededException(String message) {
+        super(message);
+    }
+}
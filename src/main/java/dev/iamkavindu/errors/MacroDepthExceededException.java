@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when velocimacro calls nest deeper than allowed, typically through runaway recursion.
+ */
+public class MacroDepthExceededException extends RenderLimitExceededException {
+
+    public MacroDepthExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render produces more output than it is allowed to.
+ */
+public class OutputLimitExceededException extends RenderLimitExceededException {
+
+    public OutputLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render is abandoned because its caller no longer needs the result.
+ */
+public class RenderCancelledException extends TemplateRenderException {
+
+    public RenderCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render is stopped because it exceeded one of its resource limits.
+ * The subclasses tell which limit was hit, so callers can report it precisely.
+ */
+public class RenderLimitExceededException extends TemplateRenderException {
+
+    public RenderLimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public RenderLimitExceededException(String message) {
+        super(message);
+    }
+}
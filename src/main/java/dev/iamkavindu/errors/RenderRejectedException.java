@@ -0,0 +1,13 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render is turned away because all render workers are busy and the queue
+ * for its channel is full, or it waited for a worker longer than allowed.
+ * Nothing was rendered, so the caller can simply try again later.
+ */
+public class RenderRejectedException extends TemplateRenderException {
+
+    public RenderRejectedException(String message) {
+        super(message);
+    }
+}
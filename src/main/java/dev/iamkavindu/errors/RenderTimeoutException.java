@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a render runs past its wall-clock deadline.
+ */
+public class RenderTimeoutException extends RenderLimitExceededException {
+
+    public RenderTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.iamkavindu.errors;
+
+/**
+ * Raised when a stored template is requested by a name or version that does not exist.
+ */
+public class TemplateNotFoundException extends TemplateRenderException {
+
+    public TemplateNotFoundException(String message) {
+        super(message);
+    }
+}
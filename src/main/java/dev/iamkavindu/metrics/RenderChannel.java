@@ -0,0 +1,14 @@
+package dev.iamkavindu.metrics;
+
+import java.util.Locale;
+
+/**
+ * Where a render request came from. Used as the {@code channel} tag on render metrics.
+ */
+public enum RenderChannel {
+    UI, API, BATCH;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,178 @@
+package dev.iamkavindu.metrics;
+
+import dev.iamkavindu.cache.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Micrometer instrumentation of the render pipeline.
+ * Every meter is tagged with the {@link RenderChannel}, and timers publish percentile
+ * histograms so latency percentiles can be aggregated across instances in Prometheus.
+ */
+@Component
+public class RenderMetrics {
+
+    public enum Stage {
+        QUEUE("velocity.render.queue", "Time renders waited for a render worker"),
+        JSON_PARSE("velocity.render.json.parse", "Time spent binding JSON data"),
+        TEMPLATE_PARSE("velocity.render.template.parse", "Time spent parsing templates on a cache miss"),
+        MERGE("velocity.render.merge", "Time spent merging parsed templates with data"),
+        TOTAL("velocity.render.total", "Time spent on a whole render");
+
+        private final String meterName;
+        private final String description;
+
+        Stage(String meterName, String description) {
+            this.meterName = meterName;
+            this.description = description;
+        }
+    }
+
+    public enum Failure {
+        TEMPLATE, JSON, LIMIT, BUSY, OUTPUT
+    }
+
+    private final MeterRegistry registry;
+    private final Map<RenderChannel, Map<Stage, Timer>> timers = new EnumMap<>(RenderChannel.class);
+    private final Map<RenderChannel, Map<Failure, Counter>> failures = new EnumMap<>(RenderChannel.class);
+    private final Map<RenderChannel, DistributionSummary> templateSizes = new EnumMap<>(RenderChannel.class);
+    private final Map<RenderChannel, DistributionSummary> outputSizes = new EnumMap<>(RenderChannel.class);
+    private final DistributionSummary standardSessions;
+    private final DistributionSummary lowFootprintSessions;
+    /**
+     * Function-based meters only hold their state weakly; these are what keep it reachable.
+     */
+    private final List<Object> monitored = new CopyOnWriteArrayList<>();
+
+    public RenderMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (RenderChannel channel : RenderChannel.values()) {
+            Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+            for (Stage stage : Stage.values()) {
+                stageTimers.put(stage, Timer.builder(stage.meterName)
+                        .description(stage.description)
+                        .tag("channel", channel.tag())
+                        .publishPercentileHistogram()
+                        .register(registry));
+            }
+            timers.put(channel, stageTimers);
+
+            Map<Failure, Counter> failureCounters = new EnumMap<>(Failure.class);
+            for (Failure failure : Failure.values()) {
+                failureCounters.put(failure, Counter.builder("velocity.render.failures")
+                        .description("Renders that failed, by cause")
+                        .tag("channel", channel.tag())
+                        .tag("type", failure.name().toLowerCase(Locale.ROOT))
+                        .register(registry));
+            }
+            failures.put(channel, failureCounters);
+
+            templateSizes.put(channel, DistributionSummary.builder("velocity.render.template.size")
+                    .description("Template length in characters")
+                    .baseUnit("chars")
+                    .tag("channel", channel.tag())
+                    .register(registry));
+            outputSizes.put(channel, DistributionSummary.builder("velocity.render.output.size")
+                    .description("Rendered output length in characters")
+                    .baseUnit("chars")
+                    .tag("channel", channel.tag())
+                    .register(registry));
+        }
+        standardSessions = sessionContentSummary("standard");
+        lowFootprintSessions = sessionContentSummary("low-footprint");
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(RenderChannel channel, Stage stage, long startNanos) {
+        timers.get(channel).get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void failure(RenderChannel channel, Failure failure) {
+        failures.get(channel).get(failure).increment();
+    }
+
+    public void templateSize(RenderChannel channel, long chars) {
+        templateSizes.get(channel).record(chars);
+    }
+
+    public void outputSize(RenderChannel channel, long chars) {
+        outputSizes.get(channel).record(chars);
+    }
+
+    /**
+     * Records the editor and preview text a UI session keeps on the server after a render.
+     */
+    public void sessionContent(boolean lowFootprint, long bytes) {
+        (lowFootprint ? lowFootprintSessions : standardSessions).record(bytes);
+    }
+
+    /**
+     * Exposes the render worker pool: slots in use, and renders waiting per channel.
+     */
+    public void monitorWorkers(IntSupplier active, ToIntFunction<RenderChannel> queued) {
+        Gauge.builder("velocity.render.workers.active", active, IntSupplier::getAsInt)
+                .description("Renders currently holding a render worker")
+                .strongReference(true)
+                .register(registry);
+        for (RenderChannel channel : RenderChannel.values()) {
+            Gauge.builder("velocity.render.queue.size", () -> queued.applyAsInt(channel))
+                    .description("Renders waiting for a render worker")
+                    .tag("channel", channel.tag())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Exposes a cache using Micrometer's standard cache meter names, tagged with {@code cache=name}.
+     */
+    public void monitorCache(String name, Supplier<CacheStats> stats) {
+        monitored.add(stats);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hits())
+                .tags("cache", name, "result", "hit")
+                .description("Cache lookups that found a value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().misses())
+                .tags("cache", name, "result", "miss")
+                .description("Cache lookups that found nothing")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictions())
+                .tag("cache", name)
+                .description("Entries evicted to stay within the cache limits")
+                .register(registry);
+        Gauge.builder("cache.size", stats, s -> s.get().size())
+                .tag("cache", name)
+                .description("Entries currently cached")
+                .register(registry);
+        Gauge.builder("cache.weight", stats, s -> s.get().weightBytes())
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .description("Approximate memory held by the cache")
+                .register(registry);
+    }
+
+    private DistributionSummary sessionContentSummary(String mode) {
+        return DistributionSummary.builder("velocity.ui.session.content")
+                .description("Approximate heap held by a UI session for editor and preview text")
+                .baseUnit("bytes")
+                .tag("mode", mode)
+                .register(registry);
+    }
+}
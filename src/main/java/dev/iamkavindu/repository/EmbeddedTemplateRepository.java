@@ -0,0 +1,33 @@
+package dev.iamkavindu.repository;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Template repository embedded in a single zip archive, which is easy to ship,
+ * back up or mount as one file. The archive is opened per operation and written
+ * back when the operation completes, so every save is durable once it returns.
+ */
+public class EmbeddedTemplateRepository extends PathTemplateRepository {
+
+    private final Path archive;
+
+    public EmbeddedTemplateRepository(Path archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    protected synchronized <T> T withRoot(PathOperation<T> operation) throws IOException {
+        Path parent = archive.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileSystem zip = FileSystems.newFileSystem(archive, Map.of("create", "true"))) {
+            return operation.apply(zip.getPath("/"));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.iamkavindu.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Template repository kept as plain files in a directory, so templates can also be
+ * edited, versioned or deployed with ordinary tools. Nothing is created until the first save.
+ */
+public class FileSystemTemplateRepository extends PathTemplateRepository {
+
+    private final Path root;
+
+    public FileSystemTemplateRepository(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    protected <T> T withRoot(PathOperation<T> operation) throws IOException {
+        return operation.apply(root);
+    }
+}
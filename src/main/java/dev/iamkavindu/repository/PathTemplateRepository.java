@@ -0,0 +1,136 @@
+package dev.iamkavindu.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Template repository laid out as one directory per template and one file per version,
+ * {@code <name>/<version>.vm}, under a root {@link Path} of any NIO file system.
+ */
+abstract class PathTemplateRepository implements TemplateRepository {
+
+    private static final String EXTENSION = ".vm";
+
+    @FunctionalInterface
+    interface PathOperation<T> {
+        T apply(Path root) throws IOException;
+    }
+
+    /**
+     * Runs the operation against the repository root, which may only be valid for the duration of the call.
+     */
+    protected abstract <T> T withRoot(PathOperation<T> operation) throws IOException;
+
+    @Override
+    public List<StoredTemplate> findAllLatest() throws IOException {
+        return withRoot(root -> {
+            List<StoredTemplate> templates = new ArrayList<>();
+            if (!Files.isDirectory(root)) {
+                return templates;
+            }
+            try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path directory : directories) {
+                    String name = fileName(directory);
+                    if (TemplateId.isValidName(name)) {
+                        int latest = latestVersion(directory);
+                        if (latest > 0) {
+                            templates.add(read(directory, name, latest));
+                        }
+                    }
+                }
+            }
+            return templates;
+        });
+    }
+
+    @Override
+    public Optional<StoredTemplate> find(TemplateId id) throws IOException {
+        return withRoot(root -> {
+            Path directory = root.resolve(id.name());
+            int version = id.isLatest() ? latestVersion(directory) : id.version();
+            try {
+                return version > 0 ? Optional.of(read(directory, id.name(), version)) : Optional.empty();
+            } catch (NoSuchFileException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public OptionalInt latestVersion(String name) throws IOException {
+        TemplateId.requireValidName(name);
+        int latest = withRoot(root -> latestVersion(root.resolve(name)));
+        return latest > 0 ? OptionalInt.of(latest) : OptionalInt.empty();
+    }
+
+    @Override
+    public long lastModified(TemplateId id) throws IOException {
+        return withRoot(root -> {
+            Path directory = root.resolve(id.name());
+            int version = id.isLatest() ? latestVersion(directory) : id.version();
+            Path file = directory.resolve(version + EXTENSION);
+            return version > 0 && Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() : 0L;
+        });
+    }
+
+    @Override
+    public synchronized StoredTemplate save(String name, String source) throws IOException {
+        TemplateId.requireValidName(name);
+        return withRoot(root -> {
+            Path directory = Files.createDirectories(root.resolve(name));
+            Path staged = Files.createTempFile(directory, ".staged", ".tmp");
+            Files.writeString(staged, source, StandardCharsets.UTF_8);
+            int version = latestVersion(directory);
+            while (true) {
+                version++;
+                Path file = directory.resolve(version + EXTENSION);
+                try {
+                    // Versions are never overwritten; another writer taking the number means we take the next one
+                    Files.move(staged, file);
+                    return new StoredTemplate(name, version, Files.getLastModifiedTime(file).toMillis(), source);
+                } catch (FileAlreadyExistsException e) {
+                    // Try the next version number
+                }
+            }
+        });
+    }
+
+    private static StoredTemplate read(Path directory, String name, int version) throws IOException {
+        Path file = directory.resolve(version + EXTENSION);
+        return new StoredTemplate(name, version, Files.getLastModifiedTime(file).toMillis(),
+                Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    private static int latestVersion(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String fileName = fileName(file);
+                try {
+                    latest = Math.max(latest, Integer.parseInt(fileName.substring(0, fileName.length() - EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // Not a version file
+                }
+            }
+        }
+        return latest;
+    }
+
+    private static String fileName(Path path) {
+        String fileName = path.getFileName().toString();
+        // Directory names carry a trailing slash on some file systems, e.g. zip
+        return fileName.endsWith("/") ? fileName.substring(0, fileName.length() - 1) : fileName;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.iamkavindu.repository;
+
+/**
+ * One version of a named template as held by a {@link TemplateRepository}.
+ * Versions are immutable once saved; saving a template again creates the next version.
+ *
+ * @param lastModified modification time in epoch milliseconds
+ */
+public record StoredTemplate(String name, int version, long lastModified, String source) {
+
+    public TemplateId id() {
+        return new TemplateId(name, version);
+    }
+}
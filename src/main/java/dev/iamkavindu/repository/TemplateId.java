@@ -0,0 +1,66 @@
+package dev.iamkavindu.repository;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reference to a stored template, written {@code name} for the latest version
+ * or {@code name@version} for a pinned one.
+ *
+ * @param name    template name; letters, digits, {@code .}, {@code _} and {@code -}
+ * @param version version number starting at 1, or {@link #LATEST}
+ */
+public record TemplateId(String name, int version) {
+
+    public static final int LATEST = 0;
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,127}");
+
+    public TemplateId {
+        requireValidName(name);
+        if (version < LATEST) {
+            throw new IllegalArgumentException("Template version must be positive: " + version);
+        }
+    }
+
+    public static TemplateId parse(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Template id cannot be null");
+        }
+        int separator = id.lastIndexOf('@');
+        if (separator < 0) {
+            return new TemplateId(id, LATEST);
+        }
+        try {
+            int version = Integer.parseInt(id.substring(separator + 1));
+            if (version == LATEST) {
+                throw new IllegalArgumentException("Template version must be positive: " + id);
+            }
+            return new TemplateId(id.substring(0, separator), version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid template version: " + id);
+        }
+    }
+
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    public static void requireValidName(String name) {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Invalid template name: " + name);
+        }
+    }
+
+    public boolean isLatest() {
+        return version == LATEST;
+    }
+
+    public TemplateId withVersion(int version) {
+        return new TemplateId(name, version);
+    }
+
+    @Override
+    public String toString() {
+        return isLatest() ? name : name + "@" + version;
+    }
+}
@@ -0,0 +1,36 @@
+package dev.iamkavindu.repository;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Server-side store of named, versioned templates.
+ * Implementations do plain I/O on every call; parsed templates are cached by Velocity's
+ * resource manager, which polls {@link #lastModified(TemplateId)} to pick up changes.
+ */
+public interface TemplateRepository {
+
+    /**
+     * Returns the latest version of every stored template.
+     */
+    List<StoredTemplate> findAllLatest() throws IOException;
+
+    /**
+     * Looks up a template version; {@link TemplateId#LATEST} resolves to the newest one.
+     */
+    Optional<StoredTemplate> find(TemplateId id) throws IOException;
+
+    OptionalInt latestVersion(String name) throws IOException;
+
+    /**
+     * Modification time of the given version in epoch milliseconds, or 0 if it does not exist.
+     */
+    long lastModified(TemplateId id) throws IOException;
+
+    /**
+     * Stores the source as the next version of the named template.
+     */
+    StoredTemplate save(String name, String source) throws IOException;
+}
@@ -0,0 +1,16 @@
+package dev.iamkavindu.repository;
+
+/**
+ * What a user has in the editors: the template and the JSON data it is rendered with.
+ */
+public record Workspace(String template, String data) {
+
+    public Workspace {
+        template = template == null ? "" : template;
+        data = data == null ? "" : data;
+    }
+
+    public long chars() {
+        return (long) template.length() + data.length();
+    }
+}
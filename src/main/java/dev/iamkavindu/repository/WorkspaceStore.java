@@ -0,0 +1,315 @@
+package dev.iamkavindu.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Editor workspaces kept on the server, as one append-only log of JSON lines in a directory.
+ * Nothing is created until the first save is written.
+ * <p>
+ * Saves are write-behind: a save replaces any save of the same workspace still waiting, and a
+ * scheduled flush appends everything waiting with one write and one sync. Only the position of
+ * each workspace's latest record is kept in memory; its text is read back from the log on load.
+ * Records superseded by later saves stay in the log until a scheduled compaction rewrites it
+ * with the live records only, which happens once they make up less than half of it.
+ * A last record torn by a crash is dropped when the log is opened.
+ */
+public class WorkspaceStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkspaceStore.class);
+
+    private static final String LOG_FILE = "workspaces.log";
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    /**
+     * Smaller logs are not worth rewriting, however much of them is superseded.
+     */
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path file;
+    private final long maxChars;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<ScheduledFuture<?>> tasks;
+
+    /**
+     * Saves not yet written, latest per workspace; empty for a deletion. Lock order: {@code this}, then this map.
+     */
+    private final Map<String, Optional<Workspace>> pending = new LinkedHashMap<>();
+    private final Map<String, Position> index = new HashMap<>();
+    private FileChannel channel;
+    private long logBytes;
+    private long liveBytes;
+
+    /**
+     * @param maxChars           largest workspace accepted, template and data together
+     * @param flushInterval      how long saves may wait before they are written
+     * @param compactionInterval how often the log is checked for compaction
+     */
+    public WorkspaceStore(Path directory, long maxChars, TaskScheduler scheduler,
+                          Duration flushInterval, Duration compactionInterval) throws IOException {
+        this.file = directory.resolve(LOG_FILE);
+        this.maxChars = maxChars;
+        open();
+        Instant now = Instant.now();
+        this.tasks = List.of(
+                scheduler.scheduleWithFixedDelay(this::flushQuietly, now.plus(flushInterval), flushInterval),
+                scheduler.scheduleWithFixedDelay(this::compactQuietly, now.plus(compactionInterval), compactionInterval));
+    }
+
+    /**
+     * Workspace ids are random UUIDs in lower case, handed out by the server and remembered by the browser.
+     */
+    public static boolean isValidId(String id) {
+        return id != null && ID.matcher(id).matches();
+    }
+
+    public void save(String id, Workspace workspace) {
+        requireValidId(id);
+        if (workspace.chars() > maxChars) {
+            throw new IllegalArgumentException("Workspace exceeds " + maxChars + " characters");
+        }
+        synchronized (pending) {
+            pending.put(id, Optional.of(workspace));
+        }
+    }
+
+    public void delete(String id) {
+        requireValidId(id);
+        synchronized (pending) {
+            pending.put(id, Optional.empty());
+        }
+    }
+
+    public synchronized Optional<Workspace> find(String id) throws IOException {
+        requireValidId(id);
+        synchronized (pending) {
+            Optional<Workspace> waiting = pending.get(id);
+            if (waiting != null) {
+                return waiting;
+            }
+        }
+        Position position = index.get(id);
+        return position == null ? Optional.empty() : Optional.of(parse(read(channel, position)).workspace());
+    }
+
+    /**
+     * Writes every waiting save. Runs on schedule; saves that fail to write wait for the next flush.
+     */
+    public synchronized void flush() throws IOException {
+        Map<String, Optional<Workspace>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        try {
+            ByteArrayOutputStream records = new ByteArrayOutputStream();
+            Map<String, Position> written = new LinkedHashMap<>();
+            for (Map.Entry<String, Optional<Workspace>> save : batch.entrySet()) {
+                Workspace workspace = save.getValue().orElse(null);
+                byte[] line = mapper.writeValueAsBytes(workspace == null
+                        ? new Record(save.getKey(), null, null, true)
+                        : new Record(save.getKey(), workspace.template(), workspace.data(), false));
+                written.put(save.getKey(), new Position(logBytes + records.size(), line.length + 1));
+                records.write(line);
+                records.write('\n');
+            }
+            if (channel == null) {
+                Files.createDirectories(file.getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            // Written at the end of the valid log, so the remains of a failed write are overwritten
+            write(channel, ByteBuffer.wrap(records.toByteArray()), logBytes);
+            channel.force(false);
+            logBytes += records.size();
+
+            for (Map.Entry<String, Position> record : written.entrySet()) {
+                Position previous = index.remove(record.getKey());
+                if (previous != null) {
+                    liveBytes -= previous.length();
+                }
+                if (batch.get(record.getKey()).isPresent()) {
+                    index.put(record.getKey(), record.getValue());
+                    liveBytes += record.getValue().length();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (pending) {
+                // Saves made meanwhile are newer
+                batch.forEach(pending::putIfAbsent);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites the log with the latest record of each workspace, if superseded records make up most of it.
+     */
+    public synchronized void compact() throws IOException {
+        if (channel == null || logBytes < MIN_COMPACTION_BYTES || liveBytes * 2 > logBytes) {
+            return;
+        }
+        Path compacted = file.resolveSibling(LOG_FILE + ".compact");
+        Map<String, Position> moved = new HashMap<>();
+        long offset = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<String, Position> record : index.entrySet()) {
+                ByteBuffer bytes = read(channel, record.getValue());
+                write(out, bytes, offset);
+                moved.put(record.getKey(), new Position(offset, record.getValue().length()));
+                offset += record.getValue().length();
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(compacted);
+            throw e;
+        }
+
+        long before = logBytes;
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            index.clear();
+            index.putAll(moved);
+            logBytes = offset;
+            liveBytes = offset;
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        log.info("Compacted workspace log from {} to {} bytes", before, logBytes);
+    }
+
+    /**
+     * Stops the scheduled tasks and writes what is still waiting.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        tasks.forEach(task -> task.cancel(false));
+        try {
+            flush();
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long offset = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                Position position = new Position(offset, line.size() + 1);
+                offset += position.length();
+                try {
+                    Record record = parse(ByteBuffer.wrap(line.toByteArray()));
+                    Position previous = index.remove(record.id());
+                    if (previous != null) {
+                        liveBytes -= previous.length();
+                    }
+                    if (!record.deleted()) {
+                        index.put(record.id(), position);
+                        liveBytes += position.length();
+                    }
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable workspace record at byte {} of {}", position.offset(), file);
+                }
+                line.reset();
+            }
+        }
+        if (offset < channel.size()) {
+            log.warn("Dropping incomplete last workspace record of {}", file);
+            channel.truncate(offset);
+        }
+        logBytes = offset;
+    }
+
+    private Record parse(ByteBuffer bytes) throws IOException {
+        return mapper.readValue(bytes.array(), bytes.arrayOffset(), bytes.remaining(), Record.class);
+    }
+
+    private static ByteBuffer read(FileChannel channel, Position position) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(position.length());
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position.offset() + bytes.position()) < 0) {
+                throw new IOException("Workspace log ends inside a record");
+            }
+        }
+        return bytes.flip();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer bytes, long offset) throws IOException {
+        long position = offset;
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write workspaces, retrying with the next flush", e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not compact the workspace log", e);
+        }
+    }
+
+    private static void requireValidId(String id) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Invalid workspace id");
+        }
+    }
+
+    private record Position(long offset, int length) {
+    }
+
+    /**
+     * One line of the log. The trailing newline is part of the record's length.
+     */
+    private record Record(String id, String template, String data, boolean deleted) {
+
+        Workspace workspace() {
+            return new Workspace(template, data);
+        }
+    }
+}
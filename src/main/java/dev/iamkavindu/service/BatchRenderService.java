@@ -0,0 +1,105 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import org.apache.velocity.Template;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Renders one template against many records in parallel.
+ * The template is parsed once by the caller, records are pulled lazily from the source and fanned out
+ * to virtual threads, and results are handed to the sink in input order. At most a fixed
+ * window of records is in flight, so a slow sink or a huge input never piles up in memory.
+ * A failing record is reported as such and does not abort the rest of the batch.
+ */
+@Service
+public class BatchRenderService {
+
+    private final VelocityTemplateService velocityTemplateService;
+    private final int maxInFlight;
+
+    public BatchRenderService(VelocityTemplateService velocityTemplateService,
+                              @Value("${velocity-renderer.batch.parallelism:0}") int parallelism) {
+        this.velocityTemplateService = velocityTemplateService;
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        // Some slack beyond the worker count keeps workers busy while the head of the window is slow
+        this.maxInFlight = workers * 2;
+    }
+
+    /**
+     * Renders every record supplied by {@code records}. Each supplier is invoked on a worker
+     * thread, so per-record JSON parsing runs in parallel too and may fail independently
+     * by throwing {@link IllegalArgumentException}.
+     *
+     * @return number of records processed
+     */
+    public long render(Template compiled,
+                       Iterator<Supplier<Map<String, Object>>> records,
+                       BatchResultSink sink) throws IOException {
+        Deque<Future<BatchResult>> window = new ArrayDeque<>(maxInFlight);
+        long index = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                while (records.hasNext()) {
+                    if (window.size() == maxInFlight) {
+                        sink.accept(await(window.removeFirst()));
+                    }
+                    Supplier<Map<String, Object>> record = records.next();
+                    long recordIndex = index++;
+                    window.addLast(executor.submit(() -> renderRecord(compiled, recordIndex, record)));
+                }
+                while (!window.isEmpty()) {
+                    sink.accept(await(window.removeFirst()));
+                }
+            } catch (IOException | RuntimeException e) {
+                // Nobody will read the remaining results
+                window.forEach(pending -> pending.cancel(true));
+                throw e;
+            }
+        }
+        return index;
+    }
+
+    private BatchResult renderRecord(Template compiled, long index, Supplier<Map<String, Object>> record) {
+        try {
+            StringWriter writer = new StringWriter();
+            velocityTemplateService.merge(compiled, record.get(), writer, RenderChannel.BATCH,
+                    RenderBudget.start(velocityTemplateService.renderLimits()), OutputPipeline.NONE);
+            return BatchResult.success(index, writer.toString());
+        } catch (TemplateRenderException | IllegalArgumentException e) {
+            return BatchResult.failure(index, e.getMessage());
+        }
+    }
+
+    private static BatchResult await(Future<BatchResult> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch render was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected batch render failure", e.getCause());
+        }
+    }
+
+    /**
+     * Receives batch results in input order.
+     */
+    @FunctionalInterface
+    public interface BatchResultSink {
+        void accept(BatchResult result) throws IOException;
+    }
+}
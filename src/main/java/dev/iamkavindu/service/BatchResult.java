@@ -0,0 +1,22 @@
+package dev.iamkavindu.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of rendering one record of a batch. Exactly one of output and error is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchResult(long index, String output, String error) {
+
+    public static BatchResult success(long index, String output) {
+        return new BatchResult(index, output, null);
+    }
+
+    public static BatchResult failure(long index, String error) {
+        return new BatchResult(index, null, error);
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Counting writer that refuses to write past the output limit of a {@link RenderBudget}.
+ * The limit is checked before anything reaches the target, so a capped render never
+ * buffers more than the limit downstream.
+ */
+class BoundedWriter extends CountingWriter {
+
+    private final RenderBudget budget;
+
+    BoundedWriter(Writer out, RenderBudget budget) {
+        super(out);
+        this.budget = budget;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        budget.output(count() + 1);
+        super.write(c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        budget.output(count() + length);
+        super.write(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        budget.output(count() + length);
+        super.write(text, offset, length);
+    }
+}
@@ -0,0 +1,39 @@
+package dev.iamkavindu.service;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that passes everything through and counts the characters written.
+ */
+class CountingWriter extends FilterWriter {
+
+    private long count;
+
+    CountingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+        count++;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        out.write(buffer, offset, length);
+        count += length;
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        out.write(text, offset, length);
+        count += length;
+    }
+
+    long count() {
+        return count;
+    }
+}
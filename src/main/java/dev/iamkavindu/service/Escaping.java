@@ -0,0 +1,131 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.app.event.ReferenceInsertionEventHandler;
+import org.apache.velocity.context.Context;
+
+import java.util.Locale;
+
+/**
+ * How the values of references are escaped as they are inserted into the output. Only what
+ * references insert is escaped, never the template's own text, so a template can write markup
+ * around data that cannot break out of it.
+ */
+public enum Escaping implements ReferenceInsertionEventHandler {
+
+    NONE {
+        @Override
+        String escape(String value) {
+            return value;
+        }
+    },
+    HTML {
+        @Override
+        String escape(String value) {
+            return markup(value, "&#39;");
+        }
+    },
+    XML {
+        @Override
+        String escape(String value) {
+            return markup(value, "&apos;");
+        }
+    },
+    /**
+     * Escapes values for use inside a JSON string literal; numbers and booleans are inserted as they are.
+     */
+    JSON {
+        @Override
+        Object insert(Object value) {
+            return value instanceof Number || value instanceof Boolean ? value : escape(value.toString());
+        }
+
+        @Override
+        String escape(String value) {
+            StringBuilder escaped = null;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                String replacement = switch (c) {
+                    case '"' -> "\\\"";
+                    case '\\' -> "\\\\";
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    default -> c < 0x20 ? "\\u%04x".formatted((int) c) : null;
+                };
+                escaped = append(escaped, value, i, c, replacement);
+            }
+            return escaped != null ? escaped.toString() : value;
+        }
+    },
+    /**
+     * Quotes values that would otherwise break a CSV field, for templates that insert whole fields.
+     */
+    CSV {
+        @Override
+        String escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return '"' + value.replace("\"", "\"\"") + '"';
+                }
+            }
+            return value;
+        }
+    };
+
+    abstract String escape(String value);
+
+    Object insert(Object value) {
+        return escape(value.toString());
+    }
+
+    @Override
+    public Object referenceInsert(Context context, String reference, Object value) {
+        // Null is how Velocity tells a quiet reference from an undefined one
+        return value != null ? insert(value) : null;
+    }
+
+    public static Escaping of(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown escaping: " + name);
+        }
+    }
+
+    private static String markup(String value, String apostrophe) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> apostrophe;
+                default -> null;
+            };
+            escaped = append(escaped, value, i, c, replacement);
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    /**
+     * Appends one character or its replacement, copying the value only once the first replacement is needed.
+     */
+    private static StringBuilder append(StringBuilder escaped, String value, int index, char c, String replacement) {
+        if (replacement == null) {
+            if (escaped != null) {
+                escaped.append(c);
+            }
+            return escaped;
+        }
+        if (escaped == null) {
+            escaped = new StringBuilder(value.length() + 16).append(value, 0, index);
+        }
+        return escaped.append(replacement);
+    }
+}
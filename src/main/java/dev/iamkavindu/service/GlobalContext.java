@@ -0,0 +1,29 @@
+package dev.iamkavindu.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only values shared by every render, such as global tools.
+ * Templates can shadow these per render but can never modify them.
+ */
+public final class GlobalContext {
+
+    private final Map<String, Object> values;
+
+    public GlobalContext(Map<String, Object> values) {
+        this.values = Map.copyOf(values);
+    }
+
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+}
@@ -0,0 +1,24 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.runtime.directive.Foreach;
+import org.apache.velocity.runtime.parser.node.Node;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Drop-in replacement for {@code #foreach} that charges every iteration to the
+ * {@link RenderBudget} of the current render. Registered as a custom directive,
+ * it takes over the built-in one, so existing templates need no changes.
+ */
+public class GovernedForeach extends Foreach {
+
+    @Override
+    protected void renderBlock(InternalContextAdapter context, Writer writer, Node node) throws IOException {
+        if (context.getInternalUserContext() instanceof RenderContext renderContext) {
+            renderContext.budget().iteration();
+        }
+        super.renderBlock(context, writer, node);
+    }
+}
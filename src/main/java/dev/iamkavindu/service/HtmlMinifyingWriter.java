@@ -0,0 +1,223 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * Minifies HTML as it is written. Runs of whitespace in text and between attributes become a
+ * single space, or a single line break if the run contained one, and comments are dropped.
+ * The minification is conservative, so the rendered page looks the same: whitespace is never
+ * removed entirely, conditional comments ({@code <!--[if ...]>}) and quoted attribute values are
+ * kept, and the contents of {@code pre}, {@code textarea}, {@code script} and {@code style}
+ * elements pass through untouched.
+ */
+final class HtmlMinifyingWriter extends StageWriter {
+
+    private static final Set<String> RAW_ELEMENTS = Set.of("pre", "textarea", "script", "style");
+
+    /**
+     * Longest element name worth remembering, enough for every name in {@link #RAW_ELEMENTS}.
+     */
+    private static final int MAX_NAME_LENGTH = 8;
+
+    private enum State {
+        TEXT, LT, LT_BANG, LT_BANG_DASH, COMMENT, TAG_NAME, TAG, RAW
+    }
+
+    private State state = State.TEXT;
+    private char pendingSpace;
+    private final StringBuilder tagName = new StringBuilder(MAX_NAME_LENGTH);
+    private boolean closingTag;
+    private boolean tagSpace;
+    private char quote;
+    private char lastTagChar;
+    private boolean commentStart;
+    private boolean keepComment;
+    private int dashes;
+    private String rawEnd;
+    private int rawMatched;
+
+    HtmlMinifyingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    void process(char c) throws IOException {
+        switch (state) {
+            case TEXT -> text(c);
+            case LT -> afterLessThan(c);
+            case LT_BANG -> {
+                if (c == '-') {
+                    state = State.LT_BANG_DASH;
+                } else {
+                    markup("<!", c);
+                }
+            }
+            case LT_BANG_DASH -> {
+                if (c == '-') {
+                    state = State.COMMENT;
+                    commentStart = true;
+                    dashes = 0;
+                } else {
+                    markup("<!-", c);
+                }
+            }
+            case COMMENT -> comment(c);
+            case TAG_NAME -> tagName(c);
+            case TAG -> tag(c);
+            case RAW -> raw(c);
+        }
+    }
+
+    @Override
+    void finish() throws IOException {
+        flushSpace();
+        switch (state) {
+            case LT -> emit('<');
+            case LT_BANG -> emit("<!");
+            case LT_BANG_DASH -> emit("<!-");
+            default -> {
+                // Nothing held back
+            }
+        }
+        state = State.TEXT;
+        super.finish();
+    }
+
+    private void text(char c) throws IOException {
+        if (Character.isWhitespace(c)) {
+            pendingSpace = c == '\n' || pendingSpace == '\n' ? '\n' : ' ';
+        } else if (c == '<') {
+            // Held back until it is known whether a comment, which is dropped along with it, starts here
+            state = State.LT;
+        } else {
+            flushSpace();
+            emit(c);
+        }
+    }
+
+    private void afterLessThan(char c) throws IOException {
+        if (c == '!') {
+            state = State.LT_BANG;
+        } else if (c == '/' || Character.isLetter(c)) {
+            flushSpace();
+            emit('<');
+            emit(c);
+            closingTag = c == '/';
+            tagName.setLength(0);
+            if (!closingTag) {
+                tagName.append(Character.toLowerCase(c));
+            }
+            state = State.TAG_NAME;
+        } else if (c == '?') {
+            markup("<", c);
+        } else {
+            // A literal less-than sign in text
+            flushSpace();
+            emit('<');
+            state = State.TEXT;
+            text(c);
+        }
+    }
+
+    /**
+     * Starts markup that is not an element, such as a doctype or a processing instruction.
+     */
+    private void markup(String start, char c) throws IOException {
+        flushSpace();
+        emit(start);
+        closingTag = true;
+        startTag();
+        tag(c);
+    }
+
+    private void comment(char c) throws IOException {
+        if (commentStart) {
+            commentStart = false;
+            keepComment = c == '[';
+            if (keepComment) {
+                flushSpace();
+                emit("<!--");
+            }
+        }
+        if (keepComment) {
+            emit(c);
+        }
+        if (c == '>' && dashes >= 2) {
+            // Whitespace around a dropped comment collapses into one run
+            state = State.TEXT;
+        }
+        dashes = c == '-' ? dashes + 1 : 0;
+    }
+
+    private void tagName(char c) throws IOException {
+        if (Character.isLetterOrDigit(c) || c == '-' || c == ':') {
+            emit(c);
+            if (!closingTag && tagName.length() <= MAX_NAME_LENGTH) {
+                tagName.append(Character.toLowerCase(c));
+            }
+        } else {
+            startTag();
+            tag(c);
+        }
+    }
+
+    private void startTag() {
+        state = State.TAG;
+        tagSpace = false;
+        quote = 0;
+        lastTagChar = 0;
+    }
+
+    private void tag(char c) throws IOException {
+        if (quote != 0) {
+            emit(c);
+            if (c == quote) {
+                quote = 0;
+            }
+        } else if (Character.isWhitespace(c)) {
+            tagSpace = true;
+        } else if (c == '>') {
+            emit(c);
+            boolean selfClosing = lastTagChar == '/';
+            if (!closingTag && !selfClosing && RAW_ELEMENTS.contains(tagName.toString())) {
+                state = State.RAW;
+                rawEnd = "</" + tagName;
+                rawMatched = 0;
+            } else {
+                state = State.TEXT;
+            }
+        } else {
+            if (tagSpace) {
+                emit(' ');
+                tagSpace = false;
+            }
+            emit(c);
+            if (c == '"' || c == '\'') {
+                quote = c;
+            }
+            lastTagChar = c;
+        }
+    }
+
+    private void raw(char c) throws IOException {
+        emit(c);
+        if (Character.toLowerCase(c) == rawEnd.charAt(rawMatched)) {
+            if (++rawMatched == rawEnd.length()) {
+                // The rest of the closing tag is minified like any other
+                closingTag = true;
+                startTag();
+            }
+        } else {
+            rawMatched = c == '<' ? 1 : 0;
+        }
+    }
+
+    private void flushSpace() throws IOException {
+        if (pendingSpace != 0) {
+            emit(pendingSpace);
+            pendingSpace = 0;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.runtime.resource.loader.ResourceLoader;
+import org.apache.velocity.util.ExtProperties;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Velocity resource loader that serves template text handed over by the caller.
+ * Lets inline templates go through {@link VelocityEngine#getTemplate(String)} so they
+ * are parsed into a reusable {@link Template} instead of being re-evaluated every time.
+ * The source is only visible to the thread that is currently compiling it, and only under
+ * the name it is compiled as, so {@code #parse} of any other name falls through to the next loader.
+ */
+public class InlineTemplateLoader extends ResourceLoader {
+
+    public static final String NAME = "inline";
+
+    private static final ThreadLocal<InlineSource> SOURCE = new ThreadLocal<>();
+
+    @Override
+    public void init(ExtProperties configuration) {
+        // Nothing to configure, sources are passed in per call
+    }
+
+    public Template load(VelocityEngine engine, String name, String source) {
+        SOURCE.set(new InlineSource(name, source));
+        try {
+            return engine.getTemplate(name);
+        } finally {
+            SOURCE.remove();
+        }
+    }
+
+    @Override
+    public Reader getResourceReader(String source, String encoding) throws ResourceNotFoundException {
+        InlineSource template = SOURCE.get();
+        if (template == null || !template.name().equals(source)) {
+            throw new ResourceNotFoundException("No inline template is being compiled for: " + source);
+        }
+        return new StringReader(template.source());
+    }
+
+    @Override
+    public boolean isSourceModified(Resource resource) {
+        return false;
+    }
+
+    @Override
+    public long getLastModified(Resource resource) {
+        return 0;
+    }
+
+    private record InlineSource(String name, String source) {
+    }
+}
@@ -1,23 +1,68 @@
 package dev.iamkavindu.service;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.iamkavindu.cache.ContentHash;
+import dev.iamkavindu.cache.WeightedLruCache;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Implementation of JsonParserService using Jackson ObjectMapper.
  * Handles parsing of JSON strings into Map structures with proper error handling.
+ * Large documents can be bound lazily, see {@link #parseJsonToContext(String, RenderChannel)}.
+ * Render contexts are cached by a hash of the JSON text, so data that did not change since
+ * the last render, e.g. while only the template is edited, is not parsed again.
+ * Mid-sized documents can be cut down to what a template reads while parsing,
+ * see {@link #parseJsonToContext(String, JsonProjection, RenderChannel)}.
  */
 @Service
 public class JsonParserService {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    /**
+     * Rough ratio between JSON text length and the retained size of the materialized maps and lists.
+     */
+    private static final int ESTIMATED_BYTES_PER_CHAR = 8;
+
+    /**
+     * Lazily bound documents retain their text, two bytes per char, plus indexes of what was read.
+     */
+    private static final int ESTIMATED_LAZY_BYTES_PER_CHAR = 3;
     
     private final ObjectMapper objectMapper;
+    private final RenderMetrics renderMetrics;
+    private final int lazyBindingThreshold;
+    private final int projectionThreshold;
+    private final WeightedLruCache<ContextKey, Map<String, Object>> contextCache;
     
-    public JsonParserService() {
+    public JsonParserService(RenderMetrics renderMetrics,
+                             @Value("${velocity-renderer.json.lazy-binding-threshold:1048576}") int lazyBindingThreshold,
+                             @Value("${velocity-renderer.json.projection-threshold:65536}") int projectionThreshold,
+                             @Value("${velocity-renderer.json.cache.max-entries:64}") int maxEntries,
+                             @Value("${velocity-renderer.json.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                             @Value("${velocity-renderer.json.cache.max-idle:10m}") Duration maxIdle) {
         objectMapper = new ObjectMapper();
+        this.renderMetrics = renderMetrics;
+        this.lazyBindingThreshold = lazyBindingThreshold;
+        this.projectionThreshold = projectionThreshold;
+        this.contextCache = new WeightedLruCache<>(maxEntries, maxWeightBytes, maxIdle);
+        renderMetrics.monitorCache("json", contextCache::stats);
     }
 
     public Map<String, Object> parseJsonToMap(String jsonString) {
@@ -26,10 +71,175 @@ public class JsonParserService {
         }
 
         try {
-            return objectMapper.readValue(jsonString, new TypeReference<>() {});
+            return objectMapper.readValue(jsonString, MAP_TYPE);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Parses JSON for use as a render context. Documents of at least
+     * {@code velocity-renderer.json.lazy-binding-threshold} characters are not materialized:
+     * the returned map reads fields and array elements from the original text on demand,
+     * so peak memory stays close to the size of the text itself. The document is still
+     * validated up front, so syntax errors surface here rather than halfway through a render.
+     * <p>
+     * The returned structure is read-only and may be shared by concurrent renders: it comes from
+     * a cache keyed by a hash of the text. Batch records are rarely repeated and bypass the cache.
+     */
+    public Map<String, Object> parseJsonToContext(String jsonString, RenderChannel channel) {
+        return parseJsonToContext(jsonString, JsonProjection.ALL, channel);
+    }
+
+    /**
+     * Parses JSON for use as the render context of a template that reads only the given parts of it.
+     * Documents of at least {@code velocity-renderer.json.projection-threshold} characters, and below
+     * the lazy binding threshold, are projected while parsing: values the template never reaches are
+     * skipped by the tokenizer instead of being materialized. Smaller documents are parsed whole,
+     * as are those bound lazily, since only what is read of them is materialized anyway.
+     * The whole document is still validated.
+     */
+    public Map<String, Object> parseJsonToContext(String jsonString, JsonProjection projection, RenderChannel channel) {
+        long start = renderMetrics.start();
+        try {
+            if (jsonString == null || jsonString.length() < projectionThreshold || jsonString.length() >= lazyBindingThreshold) {
+                projection = JsonProjection.ALL;
+            }
+            if (channel == RenderChannel.BATCH || jsonString == null) {
+                return bind(jsonString, projection);
+            }
+            ContextKey key = new ContextKey(ContentHash.of(jsonString), projection.isAll() ? JsonProjection.ALL : projection);
+            Map<String, Object> cached = contextCache.get(key);
+            if (cached == null) {
+                cached = bind(jsonString, projection);
+                contextCache.put(key, cached, (long) jsonString.length() * (cached instanceof LazyJsonObject
+                        ? ESTIMATED_LAZY_BYTES_PER_CHAR : ESTIMATED_BYTES_PER_CHAR));
+            }
+            return cached;
+        } catch (IllegalArgumentException e) {
+            renderMetrics.failure(channel, RenderMetrics.Failure.JSON);
+            throw e;
+        } finally {
+            renderMetrics.stop(channel, RenderMetrics.Stage.JSON_PARSE, start);
+        }
+    }
+
+    private Map<String, Object> bind(String jsonString, JsonProjection projection) {
+        return projection.isAll() ? bind(jsonString) : project(jsonString, projection);
+    }
+
+    private Map<String, Object> bind(String jsonString) {
+        if (jsonString == null || jsonString.isBlank() || jsonString.length() < lazyBindingThreshold) {
+            return freeze(parseJsonToMap(jsonString));
+        }
+
+        int rootOffset;
+        try (JsonParser parser = objectMapper.createParser(jsonString)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid JSON format: root must be a JSON object");
+            }
+            rootOffset = (int) parser.currentTokenLocation().getCharOffset();
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Invalid JSON format: unexpected content after root object");
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+
+        return new LazyJsonObject(new LazyJsonSource(objectMapper.getFactory(), jsonString), rootOffset);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> project(String jsonString, JsonProjection projection) {
+        if (jsonString.isBlank()) {
+            throw new IllegalArgumentException("JSON string cannot be null or empty");
+        }
+        try (JsonParser parser = objectMapper.createParser(jsonString)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid JSON format: root must be a JSON object");
+            }
+            Map<String, Object> projected = (Map<String, Object>) readProjected(parser, projection.root());
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Invalid JSON format: unexpected content after root object");
+            }
+            return projected;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the value the parser is positioned at, keeping only the parts the projection reaches,
+     * and leaves the parser at the value's last token.
+     */
+    private Object readProjected(JsonParser parser, JsonProjection.Node node) throws IOException {
+        if (node.keepsWhole() || parser.currentToken() == JsonToken.START_ARRAY && node.elements() == null) {
+            return freeze(objectMapper.readValue(parser, Object.class));
+        }
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                JsonProjection.Node field = node.field(name);
+                if (field == null) {
+                    // Skipped, but still checked for syntax errors by the tokenizer
+                    parser.skipChildren();
+                } else {
+                    map.put(name, readProjected(parser, field));
+                }
+            }
+            return Collections.unmodifiableMap(map);
+        }
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            List<Object> list = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                list.add(readProjected(parser, node.elements()));
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return objectMapper.readValue(parser, Object.class);
+    }
+
+    /**
+     * Wraps every map and list of a freshly parsed document in a read-only view, in place,
+     * so a template cannot change data that other renders see.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T freeze(T value) {
+        if (value instanceof Map<?, ?> map) {
+            ((Map<String, Object>) map).replaceAll((key, field) -> freeze(field));
+            return (T) Collections.unmodifiableMap(map);
+        }
+        if (value instanceof List<?> list) {
+            ((List<Object>) list).replaceAll(JsonParserService::freeze);
+            return (T) Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+
+    /**
+     * Cached contexts of the same text differ by what was projected out of it.
+     */
+    private record ContextKey(ContentHash hash, JsonProjection projection) {
+    }
+
+    /**
+     * Opens a streaming parser, for inputs that should not be read into memory at once.
+     */
+    public JsonParser createParser(InputStream input) throws IOException {
+        return objectMapper.createParser(input);
+    }
+
+    /**
+     * Reads the JSON object the parser is positioned at, leaving the parser right after it.
+     */
+    public Map<String, Object> readMap(JsonParser parser) {
+        try {
+            return objectMapper.readValue(parser, MAP_TYPE);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dev.iamkavindu.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a JSON document a template reads, as found by {@link TemplateAnalyzer}.
+ * Paths are dotted property chains from the root object; {@code []} stands for the elements
+ * of an array, or the values of an object, that a {@code #foreach} iterates, e.g. {@code orders[].id}.
+ * <p>
+ * A path the template reads as a whole, e.g. by printing it, keeps its entire value. A path that
+ * is only walked through keeps just the parts below it that are read. Anything the template does
+ * not reach is dropped while parsing, see {@link JsonParserService#parseJsonToContext(String, JsonProjection, dev.iamkavindu.metrics.RenderChannel)}.
+ */
+public final class JsonProjection {
+
+    /**
+     * Keeps the whole document.
+     */
+    public static final JsonProjection ALL = new JsonProjection(Set.of(""), Set.of());
+
+    private final Set<String> readPaths;
+    private final Set<String> walkedPaths;
+    private final Node root = new Node();
+
+    private JsonProjection(Set<String> readPaths, Set<String> walkedPaths) {
+        this.readPaths = Set.copyOf(readPaths);
+        this.walkedPaths = Set.copyOf(walkedPaths);
+        readPaths.forEach(path -> root.add(path).read = true);
+        walkedPaths.forEach(root::add);
+    }
+
+    /**
+     * @param readPaths   paths whose whole value is read
+     * @param walkedPaths paths that are iterated or passed through, but not read as a whole
+     */
+    public static JsonProjection of(Set<String> readPaths, Set<String> walkedPaths) {
+        return new JsonProjection(readPaths, walkedPaths);
+    }
+
+    public boolean isAll() {
+        return root.keepsWhole();
+    }
+
+    public Set<String> readPaths() {
+        return readPaths;
+    }
+
+    Node root() {
+        return root;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof JsonProjection projection
+                && readPaths.equals(projection.readPaths) && walkedPaths.equals(projection.walkedPaths);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * readPaths.hashCode() + walkedPaths.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "*" : readPaths + " via " + walkedPaths;
+    }
+
+    /**
+     * One step of a path: an object field, or the elements of an array.
+     */
+    static final class Node {
+
+        private final Map<String, Node> fields = new HashMap<>();
+        private Node elements;
+        private boolean read;
+
+        /**
+         * Whether the value here is kept entirely: it is read as a whole, nothing below it is known,
+         * or it is both iterated and read by field, which would need the two projections merged.
+         */
+        boolean keepsWhole() {
+            return read || fields.isEmpty() == (elements == null);
+        }
+
+        /**
+         * Projection of a field of the object here, or of its values if they are iterated; null if unused.
+         */
+        Node field(String name) {
+            Node field = fields.get(name);
+            return field != null ? field : elements;
+        }
+
+        /**
+         * Projection of the elements of the array here, or null if they are not iterated.
+         */
+        Node elements() {
+            return elements;
+        }
+
+        private Node add(String path) {
+            Node node = this;
+            for (String segment : path.split("\\.")) {
+                String name = segment;
+                int arrays = 0;
+                while (name.endsWith("[]")) {
+                    name = name.substring(0, name.length() - 2);
+                    arrays++;
+                }
+                if (!name.isEmpty()) {
+                    node = node.fields.computeIfAbsent(name, key -> new Node());
+                }
+                for (int i = 0; i < arrays; i++) {
+                    if (node.elements == null) {
+                        node.elements = new Node();
+                    }
+                    node = node.elements;
+                }
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.util.introspection.Info;
+import org.apache.velocity.util.introspection.UberspectImpl;
+import org.apache.velocity.util.introspection.VelPropertyGet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uberspector with a fast path for the maps and lists JSON data is bound to.
+ * Velocity keeps resolved accessors in the context, so every render resolves each
+ * {@code $user.firstName} again: the default uberspector first looks for
+ * {@code getFirstName()}, {@code getfirstName()} and friends on the map's class before it
+ * settles on {@code Map.get}. For JSON objects, whose classes have no such getters, this
+ * goes straight to a map lookup, and JSON arrays are iterated without the general type checks.
+ * Everything else, including method calls and the {@code class} property, is left to the default.
+ */
+public class JsonUberspect extends UberspectImpl {
+
+    // Read-only views that shared render contexts are wrapped in
+    private static final Class<?> FROZEN_OBJECT = Collections.unmodifiableMap(new LinkedHashMap<>()).getClass();
+    private static final Class<?> FROZEN_ARRAY = Collections.unmodifiableList(new ArrayList<>()).getClass();
+
+    @Override
+    public VelPropertyGet getPropertyGet(Object obj, String identifier, Info i) {
+        if (obj != null && isJsonObject(obj.getClass()) && !"class".equals(identifier)) {
+            return new JsonFieldGet(identifier);
+        }
+        return super.getPropertyGet(obj, identifier, i);
+    }
+
+    @Override
+    public Iterator getIterator(Object obj, Info i) {
+        if (obj != null && isJsonArray(obj.getClass())) {
+            return ((List<?>) obj).iterator();
+        }
+        return super.getIterator(obj, i);
+    }
+
+    // Exact classes only: subclasses may add getters that the default resolves first
+    private static boolean isJsonObject(Class<?> type) {
+        return type == FROZEN_OBJECT || type == LinkedHashMap.class || type == LazyJsonObject.class;
+    }
+
+    private static boolean isJsonArray(Class<?> type) {
+        return type == FROZEN_ARRAY || type == ArrayList.class || type == LazyJsonArray.class;
+    }
+
+    private record JsonFieldGet(String field) implements VelPropertyGet {
+
+        @Override
+        public Object invoke(Object o) {
+            return ((Map<?, ?>) o).get(field);
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return true;
+        }
+
+        @Override
+        public String getMethodName() {
+            return "get";
+        }
+    }
+}
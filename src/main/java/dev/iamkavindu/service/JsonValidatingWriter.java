@@ -0,0 +1,127 @@
+package dev.iamkavindu.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import dev.iamkavindu.errors.InvalidOutputException;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes output through unchanged while checking that it forms exactly one JSON document.
+ * Each chunk is encoded to UTF-8 and fed to Jackson's non-blocking parser, so a syntax error
+ * stops the render where it occurs and the check never holds more than one chunk.
+ */
+final class JsonValidatingWriter extends StageWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_BYTES = 4096;
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final byte[] bytes = new byte[BUFFER_BYTES];
+    private int size;
+    private char highSurrogate;
+    private boolean complete;
+
+    JsonValidatingWriter(Writer out) throws IOException {
+        super(out);
+        this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        out.write(buffer, offset, length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            process(buffer[i]);
+        }
+        feed();
+    }
+
+    @Override
+    void process(char c) throws IOException {
+        if (size > bytes.length - 4) {
+            feed();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+                return;
+            }
+            bytes[size++] = '?';
+        }
+        if (c < 0x80) {
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | c >> 6);
+            bytes[size++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[size++] = '?';
+        } else {
+            bytes[size++] = (byte) (0xE0 | c >> 12);
+            bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+            bytes[size++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+    @Override
+    void finish() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            bytes[size++] = '?';
+        }
+        feed();
+        feeder.endOfInput();
+        parse();
+        parser.close();
+        if (!complete) {
+            throw reject("the document is incomplete", null);
+        }
+        super.finish();
+    }
+
+    private void feed() throws IOException {
+        if (size > 0) {
+            feeder.feedInput(bytes, 0, size);
+            size = 0;
+            parse();
+        }
+    }
+
+    /**
+     * Reads every token the input fed so far allows.
+     */
+    private void parse() throws IOException {
+        try {
+            for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.NOT_AVAILABLE;
+                 token = parser.nextToken()) {
+                if (complete) {
+                    throw reject("content follows the end of the document", parser.currentLocation());
+                }
+                complete = parser.getParsingContext().inRoot();
+            }
+        } catch (JsonProcessingException e) {
+            throw reject(e.getOriginalMessage(), e.getLocation());
+        }
+    }
+
+    private static Rejected reject(String message, JsonLocation location) {
+        String where = location != null
+                ? " at line " + location.getLineNr() + ", column " + location.getColumnNr()
+                : "";
+        return new Rejected(new InvalidOutputException("Output is not valid JSON" + where + ": " + message));
+    }
+}
@@ -0,0 +1,135 @@
+package dev.iamkavindu.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only {@link java.util.List} view of a JSON array inside a {@link LazyJsonSource}.
+ * Iteration streams elements straight from the JSON text, so {@code #foreach} over a huge
+ * array only ever holds the current element. The first positional access or size query
+ * indexes where each element starts, so later ones read a single element.
+ * <p>
+ * Iterators are {@link Closeable}: {@code #foreach} closes them when it stops early, e.g. on
+ * {@code #break}, which returns the parser's buffers to Jackson.
+ */
+final class LazyJsonArray extends AbstractList<Object> {
+
+    private final LazyJsonSource source;
+    private final int offset;
+    private volatile int[] elementOffsets;
+
+    LazyJsonArray(LazyJsonSource source, int offset) {
+        this.source = source;
+        this.offset = offset;
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return new ElementIterator();
+    }
+
+    @Override
+    public Object get(int index) {
+        int[] offsets = elementOffsets();
+        if (index < 0 || index >= offsets.length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        try (JsonParser parser = source.openElement(offsets[index])) {
+            return source.readValue(parser, offsets[index] - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return elementOffsets().length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        int[] offsets = elementOffsets;
+        if (offsets != null) {
+            return offsets.length == 0;
+        }
+        try (JsonParser parser = source.open(offset)) {
+            return parser.nextToken() == JsonToken.END_ARRAY;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int[] elementOffsets() {
+        int[] offsets = elementOffsets;
+        if (offsets == null) {
+            // Racing threads build identical indexes, so publishing either one is fine
+            offsets = index();
+            elementOffsets = offsets;
+        }
+        return offsets;
+    }
+
+    private int[] index() {
+        int[] offsets = new int[16];
+        int count = 0;
+        try (JsonParser parser = source.open(offset)) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = offset + (int) parser.currentTokenLocation().getCharOffset();
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    private final class ElementIterator implements Iterator<Object>, Closeable {
+
+        private final JsonParser parser = source.open(offset);
+        private JsonToken next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = parser.nextToken();
+                    if (next == JsonToken.END_ARRAY) {
+                        parser.close();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return next != JsonToken.END_ARRAY;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            next = null;
+            try {
+                return source.readValue(parser, offset);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
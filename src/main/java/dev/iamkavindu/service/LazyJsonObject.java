@@ -0,0 +1,73 @@
+package dev.iamkavindu.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only {@link Map} view of a JSON object inside a {@link LazyJsonSource}.
+ * The object's own fields are indexed on first access; nested objects and arrays stay
+ * unparsed until they are read themselves.
+ */
+final class LazyJsonObject extends AbstractMap<String, Object> {
+
+    private final LazyJsonSource source;
+    private final int offset;
+    private volatile Map<String, Object> fields;
+
+    LazyJsonObject(LazyJsonSource source, int offset) {
+        this.source = source;
+        this.offset = offset;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return fields().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return fields().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return fields().size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return fields().entrySet();
+    }
+
+    private Map<String, Object> fields() {
+        Map<String, Object> indexed = fields;
+        if (indexed == null) {
+            // Racing threads build identical indexes, so publishing either one is fine
+            indexed = index();
+            fields = indexed;
+        }
+        return indexed;
+    }
+
+    private Map<String, Object> index() {
+        Map<String, Object> indexed = new LinkedHashMap<>();
+        try (JsonParser parser = source.open(offset)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                indexed.put(name, source.readValue(parser, offset));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableMap(indexed);
+    }
+}
@@ -0,0 +1,90 @@
+package dev.iamkavindu.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * Shared JSON text behind a tree of {@link LazyJsonObject}/{@link LazyJsonArray} views.
+ * Containers are identified by the character offset they start at and are only parsed
+ * when the template actually reads them, straight from the original text.
+ */
+final class LazyJsonSource {
+
+    private final JsonFactory jsonFactory;
+    private final String json;
+
+    LazyJsonSource(JsonFactory jsonFactory, String json) {
+        this.jsonFactory = jsonFactory;
+        this.json = json;
+    }
+
+    /**
+     * Opens a parser positioned at the container starting at the given offset.
+     * Reads the original string through a reader, so no copy of the text is made.
+     */
+    JsonParser open(int offset) {
+        try {
+            StringReader reader = new StringReader(json);
+            reader.skip(offset);
+            return positioned(jsonFactory.createParser(reader), 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a parser positioned at the array element starting at the given offset. The parser is
+     * given an opening bracket first, so it sees the element inside an array as in the text: at the
+     * root, a number must be followed by whitespace. Offsets it reports are one past those in the text.
+     */
+    JsonParser openElement(int offset) {
+        try {
+            StringReader text = new StringReader(json);
+            text.skip(offset);
+            PushbackReader reader = new PushbackReader(text, 1);
+            reader.unread('[');
+            return positioned(jsonFactory.createParser(reader), 2);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static JsonParser positioned(JsonParser parser, int tokens) throws IOException {
+        for (int i = 0; i < tokens; i++) {
+            parser.nextToken();
+        }
+        return parser;
+    }
+
+    /**
+     * Converts the value at the parser's current token, leaving the parser on its last token.
+     * Scalars map to the same types Jackson uses for untyped binding; containers become lazy views.
+     */
+    Object readValue(JsonParser parser, int baseOffset) throws IOException {
+        JsonToken token = parser.currentToken();
+        return switch (token) {
+            case START_OBJECT -> {
+                int offset = baseOffset + (int) parser.currentTokenLocation().getCharOffset();
+                parser.skipChildren();
+                yield new LazyJsonObject(this, offset);
+            }
+            case START_ARRAY -> {
+                int offset = baseOffset + (int) parser.currentTokenLocation().getCharOffset();
+                parser.skipChildren();
+                yield new LazyJsonArray(this, offset);
+            }
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_NULL -> null;
+            default -> throw new IllegalStateException("Unexpected JSON token: " + token);
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.repository.TemplateId;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.VelocityException;
+
+import java.util.List;
+
+/**
+ * Macros every template can call without defining them: the latest version of one stored template,
+ * parsed once and handed to every merge as a Velocity macro library.
+ * <p>
+ * A new version is parsed before it replaces the current one, so each render sees either the old
+ * or the new library as a whole, never a mix, and renders never wait for a reload. Macros a
+ * template defines itself stay local to that template and take precedence over the library's,
+ * so concurrent renders cannot see each other's definitions.
+ */
+public class MacroLibrary {
+
+    private final VelocityEngine velocityEngine;
+    private final String name;
+    private volatile Version current;
+
+    /**
+     * @param name name of the stored template holding the library
+     */
+    public MacroLibrary(VelocityEngine velocityEngine, String name) {
+        TemplateId.requireValidName(name);
+        this.velocityEngine = velocityEngine;
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Makes the given version of the library template current, unless a later one already is.
+     *
+     * @throws VelocityException if the version cannot be loaded or parsed; the current library stays in use
+     */
+    public synchronized void use(TemplateId id) {
+        if (!id.name().equals(name) || id.isLatest()) {
+            throw new IllegalArgumentException("Not a version of the macro library " + name + ": " + id);
+        }
+        if (current != null && current.id().version() >= id.version()) {
+            return;
+        }
+        Template template = velocityEngine.getTemplate(id.toString());
+        current = new Version(id, template, List.of(id.toString()));
+    }
+
+    /**
+     * The parsed library, or null if none has been stored yet.
+     */
+    public Template template() {
+        Version version = current;
+        return version != null ? version.template() : null;
+    }
+
+    /**
+     * Resource names to merge templates with, see {@link Template#merge(org.apache.velocity.context.Context, java.io.Writer, List)}.
+     */
+    List<String> resources() {
+        Version version = current;
+        return version != null ? version.resources() : null;
+    }
+
+    private record Version(TemplateId id, Template template, List<String> resources) {
+    }
+}
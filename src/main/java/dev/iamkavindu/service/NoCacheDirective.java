@@ -0,0 +1,32 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.context.InternalContextAdapter;
+import org.apache.velocity.runtime.directive.Directive;
+import org.apache.velocity.runtime.parser.node.Node;
+
+import java.io.Writer;
+
+/**
+ * {@code #nocache} marks a template whose output must not be cached or revalidated by ETag,
+ * e.g. because it prints the current time. It renders nothing; {@link RenderOutputCache}
+ * looks for it in the parsed template.
+ */
+public class NoCacheDirective extends Directive {
+
+    public static final String NAME = "nocache";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getType() {
+        return LINE;
+    }
+
+    @Override
+    public boolean render(InternalContextAdapter context, Writer writer, Node node) {
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.iamkavindu.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Striped pool of {@link Utf8Buffer}s in power-of-four size classes from 4 KiB to 1 MiB.
+ * Renders run on virtual threads, so buffers are shared through lock-free slots
+ * instead of thread locals. Callers ask for the size they expect, based on what the
+ * same template produced last time, so a buffer rarely has to grow during a render.
+ * Buffers that grew beyond the largest class are left to the garbage collector.
+ */
+final class OutputBufferPool {
+
+    private static final int MIN_CLASS_SHIFT = 12;
+    private static final int CLASS_COUNT = 5;
+    private static final int MAX_POOLED_CAPACITY = 1 << (MIN_CLASS_SHIFT + 2 * (CLASS_COUNT - 1));
+
+    private final AtomicReferenceArray<Utf8Buffer>[] classes;
+
+    @SuppressWarnings("unchecked")
+    OutputBufferPool(int slotsPerClass) {
+        classes = new AtomicReferenceArray[CLASS_COUNT];
+        for (int i = 0; i < CLASS_COUNT; i++) {
+            classes[i] = new AtomicReferenceArray<>(slotsPerClass);
+        }
+    }
+
+    Utf8Buffer acquire(int expectedBytes) {
+        int sizeClass = sizeClassFor(expectedBytes);
+        if (sizeClass < CLASS_COUNT) {
+            AtomicReferenceArray<Utf8Buffer> slots = classes[sizeClass];
+            int start = ThreadLocalRandom.current().nextInt(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                Utf8Buffer buffer = slots.getAndSet((start + i) % slots.length(), null);
+                if (buffer != null) {
+                    return buffer;
+                }
+            }
+        }
+        return new Utf8Buffer(sizeClass < CLASS_COUNT ? capacityOf(sizeClass) : expectedBytes);
+    }
+
+    void release(Utf8Buffer buffer) {
+        if (buffer.capacity() > MAX_POOLED_CAPACITY) {
+            return;
+        }
+        buffer.reset();
+        // The largest class whose capacity the buffer fully covers
+        int sizeClass = sizeClassFor(buffer.capacity() + 1) - 1;
+        if (sizeClass < 0) {
+            return;
+        }
+        AtomicReferenceArray<Utf8Buffer> slots = classes[sizeClass];
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.compareAndSet((start + i) % slots.length(), null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Index of the smallest class holding at least {@code bytes}; {@code CLASS_COUNT} if none does.
+     */
+    static int sizeClassFor(int bytes) {
+        int sizeClass = 0;
+        while (sizeClass < CLASS_COUNT && capacityOf(sizeClass) < bytes) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    static int capacityOf(int sizeClass) {
+        return 1 << (MIN_CLASS_SHIFT + 2 * sizeClass);
+    }
+}
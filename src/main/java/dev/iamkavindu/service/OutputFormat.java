@@ -0,0 +1,36 @@
+package dev.iamkavindu.service;
+
+import java.util.Locale;
+
+/**
+ * What kind of document a template renders, which decides the content type it is served with.
+ */
+public enum OutputFormat {
+
+    TEXT("text/plain"),
+    HTML("text/html"),
+    XML("application/xml"),
+    JSON("application/json"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    OutputFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public static OutputFormat of(String name) {
+        if (name == null) {
+            return TEXT;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown output format: " + name);
+        }
+    }
+}
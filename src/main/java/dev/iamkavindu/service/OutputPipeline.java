@@ -0,0 +1,74 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.app.event.EventCartridge;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Post-processing of a render's output: the format it is served as, how reference values are
+ * escaped and the {@link OutputStage stages} the output flows through, in order.
+ * <p>
+ * Stages are chained only when a merge starts and process the output in the chunks Velocity
+ * writes, each passing its result straight to the next, so the document is never buffered
+ * between stages. A pipeline without stages or escaping costs a render nothing.
+ */
+public record OutputPipeline(OutputFormat format, Escaping escaping, List<OutputStage> stages) {
+
+    public static final OutputPipeline NONE = new OutputPipeline(OutputFormat.TEXT, Escaping.NONE, List.of());
+
+    public OutputPipeline {
+        stages = List.copyOf(stages);
+    }
+
+    /**
+     * Builds a pipeline from the names used in render requests; absent values take the defaults of {@link #NONE}.
+     *
+     * @throws IllegalArgumentException if a name is unknown
+     */
+    public static OutputPipeline of(String format, String escaping, List<String> stages) {
+        List<OutputStage> parsed = new ArrayList<>();
+        if (stages != null) {
+            for (String stage : stages) {
+                parsed.add(OutputStage.of(stage));
+            }
+        }
+        return new OutputPipeline(OutputFormat.of(format), Escaping.of(escaping), parsed);
+    }
+
+    /**
+     * Chains the stages in front of the writer; the first stage receives what Velocity writes.
+     * Once the merge is done, {@link StageWriter#finish() finish} the result if it is a stage.
+     */
+    Writer wrap(Writer out) throws IOException {
+        Writer head = out;
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            head = stages.get(i).wrap(head);
+        }
+        return head;
+    }
+
+    /**
+     * Event handlers to attach to the render's context, or null if there are none.
+     * A cartridge is made per render: Velocity synchronizes on it for every reference inserted.
+     */
+    EventCartridge eventCartridge() {
+        if (escaping == Escaping.NONE) {
+            return null;
+        }
+        EventCartridge cartridge = new EventCartridge();
+        cartridge.addReferenceInsertionEventHandler(escaping);
+        return cartridge;
+    }
+
+    /**
+     * Identifies the pipeline in output fingerprints; two pipelines with the same key produce the same output.
+     */
+    String key() {
+        return format + " " + escaping + " "
+                + stages.stream().map(OutputStage::id).collect(Collectors.joining(","));
+    }
+}
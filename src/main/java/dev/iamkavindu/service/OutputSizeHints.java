@@ -0,0 +1,28 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.Template;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Output length of the last render of each parsed template, used to size the next output buffer.
+ * Templates are weakly referenced, so hints go away with templates evicted from the caches.
+ */
+final class OutputSizeHints {
+
+    private final Map<Template, AtomicLong> lastSizes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    int expected(Template template) {
+        AtomicLong last = lastSizes.get(template);
+        long size = last != null ? last.get() : 0;
+        // Some headroom for multi-byte characters and data that grew since last time
+        return (int) Math.min(Integer.MAX_VALUE - 8, size + size / 8);
+    }
+
+    void record(Template template, long chars) {
+        lastSizes.computeIfAbsent(template, key -> new AtomicLong()).set(chars);
+    }
+}
@@ -0,0 +1,57 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * A post-processing step applied to output while it is rendered, see {@link OutputPipeline}.
+ */
+public enum OutputStage {
+
+    /**
+     * Collapses whitespace and drops comments of HTML, without changing how it displays.
+     */
+    MINIFY_HTML {
+        @Override
+        StageWriter wrap(Writer out) {
+            return new HtmlMinifyingWriter(out);
+        }
+    },
+    /**
+     * Trims lines and collapses blanks and blank lines, for text and other line-oriented output.
+     */
+    COLLAPSE_WHITESPACE {
+        @Override
+        StageWriter wrap(Writer out) {
+            return new WhitespaceCollapsingWriter(out);
+        }
+    },
+    /**
+     * Fails the render unless the output is one well-formed JSON document.
+     */
+    VALIDATE_JSON {
+        @Override
+        StageWriter wrap(Writer out) throws IOException {
+            return new JsonValidatingWriter(out);
+        }
+    };
+
+    abstract StageWriter wrap(Writer out) throws IOException;
+
+    /**
+     * Name of the stage in render requests, e.g. {@code minify-html}.
+     */
+    public String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public static OutputStage of(String id) {
+        for (OutputStage stage : values()) {
+            if (stage.id().equals(id)) {
+                return stage;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output stage: " + id);
+    }
+}
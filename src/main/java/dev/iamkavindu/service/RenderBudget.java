@@ -0,0 +1,86 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.LoopLimitExceededException;
+import dev.iamkavindu.errors.OutputLimitExceededException;
+import dev.iamkavindu.errors.RenderCancelledException;
+import dev.iamkavindu.errors.RenderTimeoutException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import org.apache.velocity.exception.VelocityException;
+
+/**
+ * What is left of the {@link RenderLimits} of one render in flight.
+ * Velocity offers no way to interrupt a merge, so the render checks its budget
+ * cooperatively: on every {@code #foreach} iteration and on every write. A budget
+ * can also be cancelled from another thread, and interrupting the rendering
+ * (virtual) thread has the same effect.
+ */
+public final class RenderBudget {
+
+    private final RenderLimits limits;
+    private final long deadline;
+    private long iterations;
+    private volatile boolean cancelled;
+
+    private RenderBudget(RenderLimits limits) {
+        this.limits = limits;
+        this.deadline = limits.timeout().isZero() ? Long.MAX_VALUE : System.nanoTime() + limits.timeout().toNanos();
+    }
+
+    /**
+     * Starts the clock on a new render.
+     */
+    public static RenderBudget start(RenderLimits limits) {
+        return new RenderBudget(limits);
+    }
+
+    /**
+     * Asks the render to stop at its next checkpoint. Safe to call from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void checkpoint() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new Exhausted(new RenderCancelledException("Render was cancelled"));
+        }
+        if (System.nanoTime() - deadline > 0) {
+            throw new Exhausted(new RenderTimeoutException(
+                    "Render exceeded its time limit of " + limits.timeout().toMillis() + " ms"));
+        }
+    }
+
+    void iteration() {
+        checkpoint();
+        if (limits.maxLoopIterations() > 0 && ++iterations > limits.maxLoopIterations()) {
+            throw new Exhausted(new LoopLimitExceededException(
+                    "Render exceeded its limit of " + limits.maxLoopIterations() + " loop iterations"));
+        }
+    }
+
+    void output(long totalChars) {
+        checkpoint();
+        if (limits.maxOutputChars() > 0 && totalChars > limits.maxOutputChars()) {
+            throw new Exhausted(new OutputLimitExceededException(
+                    "Render exceeded its output limit of " + limits.maxOutputChars() + " characters"));
+        }
+    }
+
+    /**
+     * Carries a limit breach out of the Velocity runtime, which only lets unchecked exceptions through.
+     */
+    static final class Exhausted extends VelocityException {
+
+        Exhausted(TemplateRenderException reason) {
+            super(reason.getMessage(), reason);
+        }
+
+        TemplateRenderException reason() {
+            return (TemplateRenderException) getCause();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.context.AbstractContext;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Velocity context created for a single render.
+ * Reads resolve against template-local variables first, then the parsed JSON data,
+ * then the shared {@link GlobalContext}. The data map is wrapped as is, without copying,
+ * and is never written to: {@code #set} and removals only touch a lazily created local layer.
+ * The context also carries the {@link RenderBudget} that governed directives charge against.
+ */
+public class RenderContext extends AbstractContext {
+
+    private static final Object REMOVED = new Object();
+
+    private final Map<String, Object> data;
+    private final GlobalContext globals;
+    private final RenderBudget budget;
+    private Map<String, Object> locals;
+
+    public RenderContext(Map<String, Object> data, GlobalContext globals) {
+        this(data, globals, RenderBudget.start(RenderLimits.UNLIMITED));
+    }
+
+    public RenderContext(Map<String, Object> data, GlobalContext globals, RenderBudget budget) {
+        this.data = data;
+        this.globals = globals;
+        this.budget = budget;
+    }
+
+    public RenderBudget budget() {
+        return budget;
+    }
+
+    @Override
+    public Object internalGet(String key) {
+        if (locals != null) {
+            Object local = locals.get(key);
+            if (local != null) {
+                return local == REMOVED ? null : local;
+            }
+        }
+        Object value = data.get(key);
+        return value != null ? value : globals.get(key);
+    }
+
+    @Override
+    public Object internalPut(String key, Object value) {
+        Object previous = internalGet(key);
+        locals().put(key, value);
+        return previous;
+    }
+
+    @Override
+    public boolean internalContainsKey(String key) {
+        if (locals != null && locals.containsKey(key)) {
+            return locals.get(key) != REMOVED;
+        }
+        return data.containsKey(key) || globals.containsKey(key);
+    }
+
+    @Override
+    public String[] internalGetKeys() {
+        Set<String> keys = new LinkedHashSet<>(globals.keys());
+        keys.addAll(data.keySet());
+        if (locals != null) {
+            locals.forEach((key, value) -> {
+                if (value == REMOVED) {
+                    keys.remove(key);
+                } else {
+                    keys.add(key);
+                }
+            });
+        }
+        return keys.toArray(String[]::new);
+    }
+
+    @Override
+    public Object internalRemove(String key) {
+        Object previous = internalGet(key);
+        locals().put(key, REMOVED);
+        return previous;
+    }
+
+    private Map<String, Object> locals() {
+        if (locals == null) {
+            locals = new HashMap<>();
+        }
+        return locals;
+    }
+}
@@ -0,0 +1,23 @@
+package dev.iamkavindu.service;
+
+import java.time.Duration;
+
+/**
+ * Resource limits applied to every render, so one untrusted template cannot
+ * monopolize a thread or the heap. A zero (or zero duration) disables that limit.
+ *
+ * @param timeout            wall-clock time a single render may take
+ * @param maxOutputChars     characters a single render may write
+ * @param maxLoopIterations  {@code #foreach} iterations a single render may run, across all loops
+ * @param maxMacroDepth      how deeply velocimacro calls may nest; applies engine-wide
+ */
+public record RenderLimits(Duration timeout, long maxOutputChars, long maxLoopIterations, int maxMacroDepth) {
+
+    public static final RenderLimits UNLIMITED = new RenderLimits(Duration.ZERO, 0, 0, 0);
+
+    public RenderLimits {
+        if (timeout == null || timeout.isNegative() || maxOutputChars < 0 || maxLoopIterations < 0 || maxMacroDepth < 0) {
+            throw new IllegalArgumentException("Render limits must not be negative");
+        }
+    }
+}
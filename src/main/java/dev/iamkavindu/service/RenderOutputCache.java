@@ -0,0 +1,220 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.cache.CacheStats;
+import dev.iamkavindu.cache.ContentHash;
+import dev.iamkavindu.cache.WeightedLruCache;
+import dev.iamkavindu.config.VelocityEngineProperties;
+import dev.iamkavindu.metrics.RenderMetrics;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.VelocityException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rendered output of repeated requests, keyed by a fingerprint of the parsed template, the data
+ * and the engine configuration. The fingerprint doubles as the HTTP {@code ETag} of the output.
+ * <p>
+ * Only deterministic templates are fingerprinted. A template opts out with {@code #nocache};
+ * templates using {@code #evaluate}, or {@code #parse} and {@code #include} with a computed name,
+ * are left out as well. Templates pulled in by literal name are part of the fingerprint, and
+ * entries depending on a stored template are dropped when a new version of it is saved.
+ * The same goes for the {@link MacroLibrary}, for templates that call its macros.
+ * <p>
+ * Outputs of at least {@code precompress-min-bytes} are also kept gzip-compressed, so they are
+ * compressed once when cached rather than on every response.
+ */
+@Service
+public class RenderOutputCache {
+
+    /**
+     * Per cached entry, on top of the output itself.
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final boolean enabled;
+    private final byte[] configurationFingerprint;
+    private final WeightedLruCache<ContentHash, CachedOutput> outputs;
+    private final VelocityEngine velocityEngine;
+    private final TemplateAnalyzer templateAnalyzer;
+    private final MacroLibrary macroLibrary;
+    private final int precompressMinBytes;
+
+    public RenderOutputCache(VelocityEngineProperties engineProperties,
+                             VelocityEngine velocityEngine,
+                             TemplateAnalyzer templateAnalyzer,
+                             MacroLibrary macroLibrary,
+                             RenderLimits renderLimits,
+                             GlobalContext globalContext,
+                             RenderMetrics renderMetrics,
+                             @Value("${velocity-renderer.output-cache.enabled:true}") boolean enabled,
+                             @Value("${velocity-renderer.output-cache.max-entries:1024}") int maxEntries,
+                             @Value("${velocity-renderer.output-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                             @Value("${velocity-renderer.output-cache.ttl:5m}") Duration ttl,
+                             @Value("${velocity-renderer.output-cache.precompress-min-bytes:1024}") int precompressMinBytes) {
+        this.enabled = enabled;
+        this.velocityEngine = velocityEngine;
+        this.templateAnalyzer = templateAnalyzer;
+        this.macroLibrary = macroLibrary;
+        this.precompressMinBytes = precompressMinBytes;
+        // Anything that changes what a template renders to, besides the template and the data
+        this.configurationFingerprint = (engineProperties + "\n" + renderLimits + "\n" + globalContext.keys())
+                .getBytes(StandardCharsets.UTF_8);
+        this.outputs = new WeightedLruCache<>(enabled ? maxEntries : 0, maxWeightBytes, Duration.ZERO, ttl);
+        renderMetrics.monitorCache("output", outputs::stats);
+    }
+
+    /**
+     * Fingerprint of merging the template with the data, or empty if the output must not be
+     * cached: the cache is disabled or the template is not deterministic.
+     *
+     * @param data hash of the JSON text the data was read from. The data is not serialized again:
+     *             that would cost as much as parsing it and would materialize lazily bound documents
+     */
+    public Optional<ContentHash> fingerprint(Template compiled, ContentHash data) {
+        return fingerprint(compiled, data, OutputPipeline.NONE);
+    }
+
+    /**
+     * Fingerprint of merging the template with the data and passing the output through the pipeline.
+     */
+    public Optional<ContentHash> fingerprint(Template compiled, ContentHash data, OutputPipeline pipeline) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        MessageDigest digest = ContentHash.newDigest();
+        digest.update(configurationFingerprint);
+        digest.update(pipeline.key().getBytes(StandardCharsets.UTF_8));
+        if (!update(digest, compiled, new HashSet<>())) {
+            return Optional.empty();
+        }
+        digest.update(ByteBuffer.allocate(2 * Long.BYTES).putLong(data.high()).putLong(data.low()).flip());
+        return Optional.of(ContentHash.of(digest));
+    }
+
+    public CachedOutput get(ContentHash fingerprint) {
+        return outputs.get(fingerprint);
+    }
+
+    /**
+     * Caches the output of the render the fingerprint was taken for.
+     *
+     * @param compiled the template that was rendered, to record what it depends on
+     */
+    public void put(ContentHash fingerprint, Template compiled, RenderedOutput output) {
+        Set<String> dependencies = new HashSet<>();
+        collectDependencies(compiled, dependencies);
+        byte[] gzipped = precompressMinBytes >= 0 && output.length() >= precompressMinBytes ? gzip(output) : null;
+        outputs.put(fingerprint, new CachedOutput(output.toByteArray(), gzipped, Set.copyOf(dependencies)),
+                (long) output.length() + (gzipped != null ? gzipped.length : 0) + ENTRY_OVERHEAD_BYTES);
+    }
+
+    /**
+     * Drops the output of every template that was rendered with, or pulled in, the named stored template.
+     */
+    public void invalidateDependents(String templateName) {
+        outputs.invalidateIf(cached -> cached.dependsOn(templateName));
+    }
+
+    public CacheStats stats() {
+        return outputs.stats();
+    }
+
+    /**
+     * Adds the template and everything it pulls in to the digest.
+     *
+     * @return false if any of them is not deterministic or cannot be loaded
+     */
+    private boolean update(MessageDigest digest, Template compiled, Set<String> visited) {
+        if (!visited.add(compiled.getName())) {
+            return true;
+        }
+        TemplateAnalysis analysis = templateAnalyzer.analyze(compiled);
+        if (!analysis.isDeterministic()) {
+            return false;
+        }
+        digest.update(compiled.getName().getBytes(StandardCharsets.UTF_8));
+        // Inline template names are content hashes; stored templates can change on disk under the same name
+        if (!compiled.getName().startsWith(VelocityTemplateService.INLINE_NAME_PREFIX)) {
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, compiled.getLastModified()));
+        }
+        for (String include : analysis.includes()) {
+            Template included;
+            try {
+                included = velocityEngine.getTemplate(include);
+            } catch (VelocityException e) {
+                // Reported by the render itself
+                return false;
+            }
+            if (!update(digest, included, visited)) {
+                return false;
+            }
+        }
+        if (!analysis.libraryMacros().isEmpty()) {
+            Template library = macroLibrary.template();
+            return library != null && update(digest, library, visited);
+        }
+        return true;
+    }
+
+    /**
+     * @return the compressed output, or null if compressing does not make it smaller
+     */
+    private static byte[] gzip(RenderedOutput output) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(output.length() / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            output.writeTo(gzip);
+        } catch (IOException e) {
+            // In memory, so not expected
+            throw new UncheckedIOException(e);
+        }
+        return compressed.size() < output.length() ? compressed.toByteArray() : null;
+    }
+
+    private void collectDependencies(Template compiled, Set<String> dependencies) {
+        dependencies.add(compiled.getName());
+        TemplateAnalysis analysis = templateAnalyzer.analyze(compiled);
+        if (!analysis.libraryMacros().isEmpty()) {
+            dependencies.add(macroLibrary.name());
+        }
+        for (String include : analysis.includes()) {
+            if (!dependencies.contains(include)) {
+                try {
+                    collectDependencies(velocityEngine.getTemplate(include), dependencies);
+                } catch (VelocityException e) {
+                    dependencies.add(include);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param gzipped      the output compressed with gzip, or null if it is not kept compressed
+     * @param dependencies names of the rendered template and of all templates it pulled in
+     */
+    public record CachedOutput(byte[] bytes, byte[] gzipped, Set<String> dependencies) {
+
+        boolean dependsOn(String templateName) {
+            // Stored templates are pulled in as "name" or "name@version"
+            for (String dependency : dependencies) {
+                if (dependency.equals(templateName) || dependency.startsWith(templateName + "@")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
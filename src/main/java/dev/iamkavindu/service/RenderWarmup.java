@@ -0,0 +1,173 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.cache.ContentHash;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import org.apache.velocity.Template;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a representative set of templates at startup, before the application reports ready,
+ * so the first real render does not pay for class loading, JIT compilation and introspection.
+ * The samples go through the same steps as an API render: parse, analysis, JSON binding with
+ * and without projection, merge into a pooled buffer and output fingerprinting. Each iteration
+ * uses new data, so the JSON and output caches do not short-circuit the work.
+ * <p>
+ * A training run exits as soon as the application is ready; the container build uses it to
+ * record an AOT cache of the classes the warm-up loaded and the methods it profiled.
+ */
+@Service
+public class RenderWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderWarmup.class);
+
+    private static final String PAGE = """
+            <h1>Hello, $user.firstName $user.lastName!</h1>
+            <p>$!user.email</p>
+            """;
+
+    private static final String TABLE = """
+            <h1>Orders for $user.firstName</h1>
+            <table>
+            #foreach($order in $orders)
+              <tr class="#if($foreach.count % 2 == 0)even#else odd#end">
+                <td>$order.id</td><td>$order.product</td><td>$order.price</td>
+                <td>#if($order.shipped)shipped#else pending#end</td>
+              </tr>
+            #end
+            </table>
+            """;
+
+    private static final String REPORT = """
+            #macro(row $order)
+              <tr><td>$order.id</td><td>$order.product.toUpperCase()</td><td>$order.price</td>
+              <td>#foreach($tag in $order.tags)<span>$tag</span>#end</td></tr>
+            #end
+            #set($total = 0)
+            <table>
+            #foreach($order in $orders)
+              #row($order)
+              #set($total = $total + $order.quantity)
+            #end
+            </table>
+            <p>Total items: $total, $orders.size() orders</p>
+            """;
+
+    private record Sample(String template, int rows) {
+    }
+
+    /**
+     * A short page, a typical table and a report over enough data to be bound with projection.
+     */
+    private static final List<Sample> SAMPLES = List.of(new Sample(PAGE, 0), new Sample(TABLE, 100), new Sample(REPORT, 1_000));
+
+    private final VelocityTemplateService velocityTemplateService;
+    private final JsonParserService jsonParserService;
+    private final TemplateAnalyzer templateAnalyzer;
+    private final RenderOutputCache renderOutputCache;
+    private final ConfigurableApplicationContext applicationContext;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxTime;
+    private final boolean trainingRun;
+
+    /**
+     * @param iterations  rounds over the sample templates
+     * @param maxTime     upper bound on the warm-up, however many rounds are left
+     * @param trainingRun exit once the application is ready
+     */
+    public RenderWarmup(VelocityTemplateService velocityTemplateService,
+                        JsonParserService jsonParserService,
+                        TemplateAnalyzer templateAnalyzer,
+                        RenderOutputCache renderOutputCache,
+                        ConfigurableApplicationContext applicationContext,
+                        @Value("${velocity-renderer.warmup.enabled:true}") boolean enabled,
+                        @Value("${velocity-renderer.warmup.iterations:200}") int iterations,
+                        @Value("${velocity-renderer.warmup.max-time:10s}") Duration maxTime,
+                        @Value("${velocity-renderer.warmup.training-run:false}") boolean trainingRun) {
+        this.velocityTemplateService = velocityTemplateService;
+        this.jsonParserService = jsonParserService;
+        this.templateAnalyzer = templateAnalyzer;
+        this.renderOutputCache = renderOutputCache;
+        this.applicationContext = applicationContext;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxTime = maxTime;
+        this.trainingRun = trainingRun;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxTime.toNanos();
+        int renders = 0;
+        rounds:
+        for (int i = 0; i < iterations; i++) {
+            for (Sample sample : SAMPLES) {
+                if (System.nanoTime() - deadline > 0) {
+                    break rounds;
+                }
+                try {
+                    render(sample, i);
+                    renders++;
+                } catch (TemplateRenderException e) {
+                    log.warn("Warm-up render failed", e);
+                    return;
+                }
+            }
+        }
+        log.info("Warm-up rendered {} templates in {} ms, {} ms after JVM start", renders,
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exitAfterTraining() {
+        if (trainingRun) {
+            log.info("Training run complete, exiting");
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void render(Sample sample, int iteration) throws TemplateRenderException {
+        Template compiled = velocityTemplateService.compile(sample.template(), RenderChannel.API);
+        JsonProjection projection = templateAnalyzer.analyze(compiled).projection();
+        String json = json(sample.rows(), iteration);
+        Map<String, Object> data = jsonParserService.parseJsonToContext(json, projection, RenderChannel.API);
+        renderOutputCache.fingerprint(compiled, ContentHash.of(json));
+        try (RenderedOutput output = velocityTemplateService.mergeUtf8(compiled, data, RenderChannel.API,
+                RenderBudget.start(velocityTemplateService.renderLimits()), OutputPipeline.NONE)) {
+            output.length();
+        }
+    }
+
+    private static String json(int rows, int iteration) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"iteration\": ").append(iteration)
+                .append(", \"user\": {\"firstName\": \"Jane\", \"lastName\": \"Smith\", \"email\": \"jane@example.com\"}, \"orders\": [");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\": %d, \"product\": \"Product %d\", \"price\": %d.99, \"quantity\": %d, \"shipped\": %b, \"tags\": [\"a%d\", \"b%d\"]}"
+                    .formatted(i, i, i % 100, i % 7, i % 3 == 0, i % 10, i % 13));
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,212 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.RenderCancelledException;
+import dev.iamkavindu.errors.RenderRejectedException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps how many renders merge at once, so a burst of requests queues up instead of
+ * oversubscribing the CPU. Renders run on their caller's thread, typically a virtual thread,
+ * once they hold one of a fixed number of worker slots, one per core by default.
+ * <p>
+ * Renders waiting for a slot queue per {@link RenderChannel}, and a freed slot goes to the
+ * oldest waiter of the most urgent channel: interactive UI previews first, then API requests,
+ * then batch records. A UI or API render whose queue is full, or that waits longer than the
+ * maximum queue time, is rejected with {@link RenderRejectedException} rather than piling up.
+ * Batch records are never turned away: {@link BatchRenderService} already bounds how many of
+ * them are in flight, so they wait as long as it takes instead of failing one by one.
+ * <p>
+ * A slot is for merging only: renders that stream to a receiver outside the service give it up
+ * while they write, see {@link #resume(RenderChannel)}.
+ */
+@Service
+public class RenderWorkerPool {
+
+    private final RenderMetrics renderMetrics;
+    private final int workers;
+    private final Map<RenderChannel, Integer> queueCapacities = new EnumMap<>(RenderChannel.class);
+    private final long maxQueueNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<RenderChannel, Deque<Waiter>> queues = new EnumMap<>(RenderChannel.class);
+    private int available;
+
+    /**
+     * @param workers      renders merging at once; 0 for one per available processor
+     * @param maxQueueTime how long a UI or API render may wait for a worker; zero to wait as long as it takes
+     */
+    public RenderWorkerPool(RenderMetrics renderMetrics,
+                            @Value("${velocity-renderer.workers.count:0}") int workers,
+                            @Value("${velocity-renderer.workers.queue.ui:64}") int uiQueue,
+                            @Value("${velocity-renderer.workers.queue.api:256}") int apiQueue,
+                            @Value("${velocity-renderer.workers.max-queue-time:2s}") Duration maxQueueTime) {
+        this.renderMetrics = renderMetrics;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.available = this.workers;
+        this.maxQueueNanos = maxQueueTime.toNanos();
+        queueCapacities.put(RenderChannel.UI, uiQueue);
+        queueCapacities.put(RenderChannel.API, apiQueue);
+        queueCapacities.put(RenderChannel.BATCH, Integer.MAX_VALUE);
+        for (RenderChannel channel : RenderChannel.values()) {
+            queues.put(channel, new ArrayDeque<>());
+        }
+        renderMetrics.monitorWorkers(this::active, this::queued);
+    }
+
+    /**
+     * A pool that never makes a render wait, for tools and tests that render on their own.
+     */
+    public static RenderWorkerPool unbounded(RenderMetrics renderMetrics) {
+        return new RenderWorkerPool(renderMetrics, Integer.MAX_VALUE, 0, 0, Duration.ZERO);
+    }
+
+    /**
+     * Waits for a worker slot. Every successful call must be paired with a {@link #release()}.
+     *
+     * @throws RenderRejectedException  if the channel's queue is full or the wait timed out; never for batch records
+     * @throws RenderCancelledException if the waiting thread was interrupted
+     */
+    public void acquire(RenderChannel channel) throws RenderRejectedException, RenderCancelledException {
+        long start = renderMetrics.start();
+        lock.lock();
+        try {
+            if (available > 0 && nothingQueued()) {
+                available--;
+                return;
+            }
+            Deque<Waiter> queue = queues.get(channel);
+            if (queue.size() >= queueCapacities.get(channel)) {
+                renderMetrics.failure(channel, RenderMetrics.Failure.BUSY);
+                throw new RenderRejectedException("All render workers are busy, try again shortly");
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            await(channel, waiter);
+        } finally {
+            lock.unlock();
+            renderMetrics.stop(channel, RenderMetrics.Stage.QUEUE, start);
+        }
+    }
+
+    /**
+     * Takes a slot back for a render that gave its own up with {@link #release()} while writing
+     * output to a slow receiver. The render was admitted already, so it is neither rejected nor
+     * timed out: it waits at the head of its channel's queue, and an interrupt is left for the
+     * render's budget to notice once the slot is back.
+     */
+    public void resume(RenderChannel channel) {
+        lock.lock();
+        try {
+            if (available > 0 && nothingQueued()) {
+                available--;
+                return;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.get(channel).addFirst(waiter);
+            while (!waiter.granted) {
+                waiter.ready.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the slot to the next waiter, most urgent channel first.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            for (Deque<Waiter> queue : queues.values()) {
+                Waiter next = queue.pollFirst();
+                if (next != null) {
+                    next.granted = true;
+                    next.ready.signal();
+                    return;
+                }
+            }
+            available++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    private void await(RenderChannel channel, Waiter waiter) throws RenderRejectedException, RenderCancelledException {
+        long maxNanos = channel == RenderChannel.BATCH ? 0 : maxQueueNanos;
+        long remaining = maxNanos;
+        try {
+            while (!waiter.granted) {
+                if (maxNanos == 0) {
+                    waiter.ready.await();
+                } else if (remaining <= 0) {
+                    queues.get(channel).remove(waiter);
+                    renderMetrics.failure(channel, RenderMetrics.Failure.BUSY);
+                    throw new RenderRejectedException("Timed out waiting for a render worker, try again shortly");
+                } else {
+                    remaining = waiter.ready.awaitNanos(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            if (waiter.granted) {
+                // The slot was handed over just before the interrupt, pass it on
+                release();
+            } else {
+                queues.get(channel).remove(waiter);
+            }
+            Thread.currentThread().interrupt();
+            throw new RenderCancelledException("Render was interrupted while waiting for a worker");
+        }
+    }
+
+    private boolean nothingQueued() {
+        for (Deque<Waiter> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int active() {
+        lock.lock();
+        try {
+            return workers - available;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int queued(RenderChannel channel) {
+        lock.lock();
+        try {
+            return queues.get(channel).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Condition ready;
+        private boolean granted;
+
+        private Waiter(Condition ready) {
+            this.ready = ready;
+        }
+    }
+}
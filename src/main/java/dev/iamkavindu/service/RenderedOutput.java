@@ -0,0 +1,98 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UTF-8 encoded result of a render, held in a pooled buffer.
+ * Write it out and {@link #close()} it promptly; the buffer is reused by later renders,
+ * so the output must not be touched after closing. Output that is kept around, such as a
+ * stored preview document, can be shared with {@link #retain()}: the buffer goes back to the
+ * pool once every holder has closed it.
+ */
+public final class RenderedOutput implements AutoCloseable {
+
+    private final Utf8Buffer buffer;
+    private final OutputBufferPool pool;
+    private final AtomicInteger holders = new AtomicInteger(1);
+
+    RenderedOutput(Utf8Buffer buffer, OutputBufferPool pool) {
+        this.buffer = buffer;
+        this.pool = pool;
+    }
+
+    /**
+     * Encodes a document that was not rendered, e.g. a message, in a buffer of its own outside the pool.
+     */
+    public static RenderedOutput of(String text) {
+        Utf8Buffer buffer = new Utf8Buffer(text.length());
+        buffer.write(text, 0, text.length());
+        buffer.finish();
+        return new RenderedOutput(buffer, null);
+    }
+
+    /**
+     * Length of the output in bytes.
+     */
+    public int length() {
+        return buffer.size();
+    }
+
+    /**
+     * Heap held for the output until it is closed: its whole buffer, which may be larger than its length.
+     */
+    public int retainedBytes() {
+        return buffer.capacity();
+    }
+
+    public byte byteAt(int index) {
+        Objects.checkIndex(index, buffer.size());
+        return buffer.byteAt(index);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        buffer.writeTo(out);
+    }
+
+    public void writeTo(OutputStream out, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, buffer.size());
+        buffer.writeTo(out, offset, length);
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Adds a holder, who has to {@link #close()} the output as well.
+     *
+     * @return false if the output has been closed already and must not be used
+     */
+    public boolean retain() {
+        int current;
+        do {
+            current = holders.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!holders.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+
+    /**
+     * Gives up one holder's use of the output; closing it more often than it was held has no effect.
+     */
+    @Override
+    public void close() {
+        if (holders.getAndUpdate(count -> Math.max(0, count - 1)) == 1 && pool != null) {
+            pool.release(buffer);
+        }
+    }
+}
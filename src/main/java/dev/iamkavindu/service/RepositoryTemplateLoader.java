@@ -0,0 +1,81 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.repository.StoredTemplate;
+import dev.iamkavindu.repository.TemplateId;
+import dev.iamkavindu.repository.TemplateRepository;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.exception.VelocityException;
+import org.apache.velocity.runtime.resource.Resource;
+import org.apache.velocity.runtime.resource.loader.ResourceLoader;
+import org.apache.velocity.util.ExtProperties;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Optional;
+
+/**
+ * Velocity resource loader that serves templates from a {@link TemplateRepository}.
+ * Resource names are template ids such as {@code invoice@3}. Velocity's resource manager
+ * caches what this loader returns and periodically asks it whether the source has changed,
+ * so edits made directly in the repository are picked up without a restart.
+ */
+public class RepositoryTemplateLoader extends ResourceLoader {
+
+    public static final String NAME = "repository";
+
+    private final TemplateRepository repository;
+    private final int modificationCheckInterval;
+
+    /**
+     * @param modificationCheckInterval seconds between checks for changed sources, 0 to never check
+     */
+    public RepositoryTemplateLoader(TemplateRepository repository, int modificationCheckInterval) {
+        this.repository = repository;
+        this.modificationCheckInterval = modificationCheckInterval;
+    }
+
+    public int modificationCheckInterval() {
+        return modificationCheckInterval;
+    }
+
+    @Override
+    public void init(ExtProperties configuration) {
+        // The repository is passed in the constructor
+    }
+
+    @Override
+    public Reader getResourceReader(String source, String encoding) throws ResourceNotFoundException {
+        TemplateId id = toId(source);
+        Optional<StoredTemplate> stored;
+        try {
+            stored = repository.find(id);
+        } catch (IOException e) {
+            throw new VelocityException("Could not read template " + source + " from the repository", e);
+        }
+        return stored.map(template -> (Reader) new StringReader(template.source()))
+                .orElseThrow(() -> new ResourceNotFoundException("No stored template: " + source));
+    }
+
+    @Override
+    public boolean isSourceModified(Resource resource) {
+        return getLastModified(resource) != resource.getLastModified();
+    }
+
+    @Override
+    public long getLastModified(Resource resource) {
+        try {
+            return repository.lastModified(toId(resource.getName()));
+        } catch (IOException | ResourceNotFoundException e) {
+            return 0;
+        }
+    }
+
+    private static TemplateId toId(String source) throws ResourceNotFoundException {
+        try {
+            return TemplateId.parse(source);
+        } catch (IllegalArgumentException e) {
+            throw new ResourceNotFoundException("Not a stored template id: " + source);
+        }
+    }
+}
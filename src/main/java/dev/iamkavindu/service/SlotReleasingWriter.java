@@ -0,0 +1,96 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.metrics.RenderChannel;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer in front of a receiver outside the service, such as a servlet response, that is
+ * written to without holding a {@link RenderWorkerPool} slot. Output is collected in chunks;
+ * to hand a chunk over, the render gives its slot up and takes it back afterwards, so a slow
+ * client stalls only its own render instead of a worker that other renders queue for.
+ * Whatever is left when the merge ends is written by {@link #drain()}, after the slot is released.
+ */
+final class SlotReleasingWriter extends Writer {
+
+    private static final int CHUNK_CHARS = 8192;
+
+    private final Writer out;
+    private final RenderWorkerPool renderWorkerPool;
+    private final RenderChannel channel;
+    private final char[] chunk = new char[CHUNK_CHARS];
+    private int length;
+
+    SlotReleasingWriter(Writer out, RenderWorkerPool renderWorkerPool, RenderChannel channel) {
+        this.out = out;
+        this.renderWorkerPool = renderWorkerPool;
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (length == chunk.length) {
+            handOver();
+        }
+        chunk[length++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == chunk.length) {
+                handOver();
+            }
+            int n = Math.min(count, chunk.length - length);
+            System.arraycopy(buffer, offset, chunk, length, n);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == chunk.length) {
+                handOver();
+            }
+            int n = Math.min(count, chunk.length - length);
+            text.getChars(offset, offset + n, chunk, length);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * Kept for the end of the merge, so Velocity's flushes do not write while holding the slot.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Writes the collected output to the receiver; call once the render no longer holds a slot.
+     */
+    void drain() throws IOException {
+        if (length > 0) {
+            out.write(chunk, 0, length);
+            length = 0;
+        }
+    }
+
+    private void handOver() throws IOException {
+        renderWorkerPool.release();
+        try {
+            drain();
+        } finally {
+            renderWorkerPool.resume(channel);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.InvalidOutputException;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Base of the {@link OutputStage} writers. A stage sees the output in the chunks Velocity writes
+ * and passes each one on before returning, keeping only what it needs to decide about the next
+ * characters, so no stage ever holds the whole document. Strings are taken in slices of a small
+ * scratch array, and what a stage emits is batched into another before it reaches the next writer.
+ * Not thread-safe; a stage lives for one render.
+ */
+abstract class StageWriter extends FilterWriter {
+
+    private static final int CHUNK = 1024;
+
+    private final char[] scratch = new char[CHUNK];
+    private final char[] pending = new char[CHUNK];
+    private int pendingLength;
+
+    StageWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        scratch[0] = (char) c;
+        write(scratch, 0, 1);
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        for (int end = offset + length; offset < end; offset += CHUNK) {
+            int slice = Math.min(CHUNK, end - offset);
+            text.getChars(offset, offset + slice, scratch, 0);
+            write(scratch, 0, slice);
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            process(buffer[i]);
+        }
+        drain();
+    }
+
+    /**
+     * Handles one character of output, emitting whatever it decides on.
+     */
+    abstract void process(char c) throws IOException;
+
+    /**
+     * Called once all output has been written: emits what the stage still holds back, or rejects
+     * the output as a whole, then finishes the stages after this one.
+     */
+    void finish() throws IOException {
+        drain();
+        if (out instanceof StageWriter next) {
+            next.finish();
+        }
+    }
+
+    final void emit(char c) throws IOException {
+        if (pendingLength == pending.length) {
+            drain();
+        }
+        pending[pendingLength++] = c;
+    }
+
+    final void emit(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            emit(text.charAt(i));
+        }
+    }
+
+    final void drain() throws IOException {
+        if (pendingLength > 0) {
+            out.write(pending, 0, pendingLength);
+            pendingLength = 0;
+        }
+    }
+
+    /**
+     * Carries a rejected output out of the Velocity runtime, which wraps writer failures on their way out.
+     */
+    static final class Rejected extends IOException {
+
+        Rejected(InvalidOutputException reason) {
+            super(reason.getMessage(), reason);
+        }
+
+        InvalidOutputException reason() {
+            return (InvalidOutputException) getCause();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeConstants;
+import org.apache.velocity.runtime.resource.ResourceManagerImpl;
+
+/**
+ * Velocity's resource manager, with a way to drop a template from its cache. Templates pulled
+ * in by name, e.g. {@code #parse("header")}, resolve to the latest version and would otherwise
+ * keep rendering the previous one until the next modification check.
+ */
+public class StoredTemplateResourceManager extends ResourceManagerImpl {
+
+    /**
+     * The resource manager of an engine created by {@link dev.iamkavindu.config.VelocityEngineFactory}, if it has one.
+     */
+    public static StoredTemplateResourceManager of(VelocityEngine engine) {
+        return engine.getProperty(RuntimeConstants.RESOURCE_MANAGER_INSTANCE) instanceof StoredTemplateResourceManager manager
+                ? manager : null;
+    }
+
+    /**
+     * Drops the parsed template of the given resource name, so it is loaded again when next used.
+     */
+    public void evict(String name) {
+        if (globalCache != null) {
+            globalCache.remove(RESOURCE_TEMPLATE + name);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.iamkavindu.service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What a parsed template uses, found by {@link TemplateAnalyzer} without rendering it.
+ *
+ * @param references      data paths the template reads, e.g. {@code user.firstName} or {@code orders[].id}
+ * @param macrosDefined   macros the template defines
+ * @param macrosUsed      macros the template calls, defined here or elsewhere
+ * @param libraryMacros   macros the template calls that only the {@link MacroLibrary} defines
+ * @param includes        resources pulled in by {@code #parse} or {@code #include} with a literal name
+ * @param dynamicIncludes whether a {@code #parse} or {@code #include} names its resource with an expression
+ * @param evaluates       whether the template uses {@code #evaluate}
+ * @param noCache         whether the template opts out of output caching with {@code #nocache}
+ * @param projection      the parts of the data the render can reach
+ * @param uses            every reference read, in template order
+ * @param locals          variables the template defines itself: {@code #set} targets, loop variables,
+ *                        macro parameters and {@code #define} blocks
+ */
+public record TemplateAnalysis(Set<String> references,
+                               Set<String> macrosDefined,
+                               Set<String> macrosUsed,
+                               Set<String> libraryMacros,
+                               Set<String> includes,
+                               boolean dynamicIncludes,
+                               boolean evaluates,
+                               boolean noCache,
+                               JsonProjection projection,
+                               List<ReferenceUse> uses,
+                               Set<String> locals) {
+
+    /**
+     * A reference as written in the template.
+     *
+     * @param reference  the reference up to its first method call or index, e.g. {@code $user.address.city}
+     * @param root       the variable it starts from
+     * @param properties the property chain after the root
+     * @param optional   whether an undefined value is expected: quiet references and {@code #if} conditions
+     */
+    public record ReferenceUse(String reference, String root, List<String> properties,
+                               int line, int column, boolean optional) {
+    }
+
+    /**
+     * Whether the output depends on nothing but the template, the included resources and the data.
+     */
+    public boolean isDeterministic() {
+        return !noCache && !evaluates && !dynamicIncludes;
+    }
+}
@@ -0,0 +1,400 @@
+package dev.iamkavindu.service;
+
+import org.apache.velocity.Template;
+import org.apache.velocity.runtime.parser.node.ASTBlock;
+import org.apache.velocity.runtime.parser.node.ASTDirective;
+import org.apache.velocity.runtime.parser.node.ASTDirectiveAssign;
+import org.apache.velocity.runtime.parser.node.ASTElseIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTExpression;
+import org.apache.velocity.runtime.parser.node.ASTIdentifier;
+import org.apache.velocity.runtime.parser.node.ASTIfStatement;
+import org.apache.velocity.runtime.parser.node.ASTReference;
+import org.apache.velocity.runtime.parser.node.ASTSetDirective;
+import org.apache.velocity.runtime.parser.node.ASTStringLiteral;
+import org.apache.velocity.runtime.parser.node.ASTWord;
+import org.apache.velocity.runtime.parser.node.Node;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * Static analysis of parsed templates: which data paths, macros and resources they use.
+ * Works on the AST Velocity already built, so it costs one walk per parsed template;
+ * results are kept as long as the template itself.
+ * <p>
+ * Data paths follow variables through {@code #set($x = $a.b)} and {@code #foreach($x in $a.b)},
+ * so {@code $x.c} counts as a read of {@code a.b.c} or {@code a.b[].c}. A reference is followed
+ * up to its first method call or index; from there on its whole value counts as read.
+ * <p>
+ * A template calling macros of the {@link MacroLibrary} is analyzed together with the library, so
+ * what the library's macros read counts as read by the template. Analyses are redone once the
+ * library is replaced.
+ */
+@Component
+public class TemplateAnalyzer {
+
+    private static final Set<String> BUILT_IN_VARIABLES =
+            Set.of("foreach", "velocityCount", "velocityHasNext", "bodyContent", "template", "macro", "parse", "evaluate", "define");
+
+    private final MacroLibrary macroLibrary;
+    private final Map<Template, Analyzed> analyses = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public TemplateAnalyzer(MacroLibrary macroLibrary) {
+        this.macroLibrary = macroLibrary;
+    }
+
+    public TemplateAnalysis analyze(Template compiled) {
+        Template library = macroLibrary.template();
+        if (library == compiled) {
+            library = null;
+        }
+        Analyzed analyzed = analyses.get(compiled);
+        if (analyzed == null || analyzed.library() != library) {
+            analyzed = new Analyzed(library, new Walk((Node) compiled.getData(), library).analysis());
+            analyses.put(compiled, analyzed);
+        }
+        return analyzed.analysis();
+    }
+
+    /**
+     * References that resolve to nothing against the given data and globals, in template order.
+     * Quiet references and {@code #if} conditions are expected to be undefined at times and are not reported.
+     */
+    public List<TemplateAnalysis.ReferenceUse> undefinedReferences(TemplateAnalysis analysis, Map<String, Object> data,
+                                                                   GlobalContext globals) {
+        List<TemplateAnalysis.ReferenceUse> undefined = new ArrayList<>();
+        for (TemplateAnalysis.ReferenceUse use : analysis.uses()) {
+            if (use.optional() || analysis.locals().contains(use.root()) || BUILT_IN_VARIABLES.contains(use.root())) {
+                continue;
+            }
+            if (globals.containsKey(use.root())) {
+                continue;
+            }
+            if (!data.containsKey(use.root()) || !resolves(data.get(use.root()), use.properties())) {
+                undefined.add(use);
+            }
+        }
+        return undefined;
+    }
+
+    /**
+     * Follows a property chain through JSON maps. Other values may have properties of their own,
+     * such as {@code $list.empty}, so the chain is only checked as far as it runs through maps.
+     */
+    private static boolean resolves(Object value, List<String> properties) {
+        for (String property : properties) {
+            if (!(value instanceof Map<?, ?> map)) {
+                return true;
+            }
+            if (!map.containsKey(property)) {
+                return false;
+            }
+            value = map.get(property);
+        }
+        return true;
+    }
+
+    /**
+     * @param library the macro library the analysis was made with, if any
+     */
+    private record Analyzed(Template library, TemplateAnalysis analysis) {
+    }
+
+    /**
+     * One pass over a template's AST. Variables are bound first, so references to a variable
+     * that is set further down still resolve to the data it stands for.
+     */
+    private static final class Walk {
+
+        private final Node root;
+        private final Template library;
+        private final Map<String, Set<String>> aliases = new HashMap<>();
+        private final Set<String> locals = new TreeSet<>();
+        private final Set<String> readPaths = new TreeSet<>();
+        private final Set<String> walkedPaths = new TreeSet<>();
+        private final Set<String> macrosDefined = new TreeSet<>();
+        private final Set<String> macrosUsed = new TreeSet<>();
+        private final Set<String> libraryMacros = new TreeSet<>();
+        private final Set<String> libraryMacrosUsed = new TreeSet<>();
+        private final Set<String> includes = new TreeSet<>();
+        private final List<TemplateAnalysis.ReferenceUse> uses = new ArrayList<>();
+        private boolean dynamicIncludes;
+        private boolean evaluates;
+        private boolean noCache;
+        private boolean projectable = true;
+        /**
+         * Whether the library is being walked: its reads count, its definitions and uses are its own.
+         */
+        private boolean inLibrary;
+
+        private Walk(Node root, Template library) {
+            this.root = root;
+            this.library = library;
+        }
+
+        private TemplateAnalysis analysis() {
+            bind(root);
+            read(root, false);
+            if (library != null) {
+                libraryMacros.addAll(macrosUsed);
+                libraryMacros.removeAll(macrosDefined);
+                libraryMacros.retainAll(library.getMacros().keySet());
+            }
+            if (!libraryMacros.isEmpty()) {
+                inLibrary = true;
+                bind((Node) library.getData());
+                read((Node) library.getData(), false);
+                inLibrary = false;
+            }
+            Set<String> defined = new TreeSet<>(macrosDefined);
+            defined.addAll(libraryMacros);
+            if (!includes.isEmpty() || dynamicIncludes || evaluates || !defined.containsAll(macrosUsed)
+                    || !libraryDefinitions().containsAll(libraryMacrosUsed)) {
+                // Other templates and macros defined elsewhere may read any part of the data
+                projectable = false;
+            }
+            return new TemplateAnalysis(
+                    Collections.unmodifiableSet(readPaths),
+                    Collections.unmodifiableSet(macrosDefined),
+                    Collections.unmodifiableSet(macrosUsed),
+                    Collections.unmodifiableSet(libraryMacros),
+                    Collections.unmodifiableSet(includes),
+                    dynamicIncludes, evaluates, noCache,
+                    projectable ? JsonProjection.of(readPaths, walkedPaths) : JsonProjection.ALL,
+                    Collections.unmodifiableList(uses),
+                    Collections.unmodifiableSet(locals));
+        }
+
+        private Set<String> libraryDefinitions() {
+            return library != null ? library.getMacros().keySet() : Set.of();
+        }
+
+        private void local(String variable) {
+            if (!inLibrary) {
+                locals.add(variable);
+            }
+        }
+
+        private void bind(Node node) {
+            if (node instanceof ASTSetDirective) {
+                ASTReference target = (ASTReference) node.jjtGetChild(0);
+                if (target.jjtGetNumChildren() == 0) {
+                    local(target.getRootString());
+                    ASTReference source = plainReference(node.jjtGetChild(1));
+                    if (source != null) {
+                        alias(target.getRootString(), paths(source), "");
+                    }
+                }
+            } else if (node instanceof ASTDirective directive) {
+                switch (directive.getDirectiveName()) {
+                    case "foreach" -> {
+                        String variable = ((ASTReference) node.jjtGetChild(0)).getRootString();
+                        local(variable);
+                        ASTReference iterable = node.jjtGetNumChildren() > 2 ? plainReference(node.jjtGetChild(2)) : null;
+                        if (iterable != null) {
+                            alias(variable, paths(iterable), "[]");
+                        }
+                    }
+                    case "macro" -> {
+                        for (int i = 1; i < node.jjtGetNumChildren(); i++) {
+                            Node parameter = node.jjtGetChild(i);
+                            if (parameter instanceof ASTDirectiveAssign) {
+                                parameter = parameter.jjtGetChild(0);
+                            }
+                            if (parameter instanceof ASTReference reference) {
+                                local(reference.getRootString());
+                            }
+                        }
+                    }
+                    case "define" -> local(((ASTReference) node.jjtGetChild(0)).getRootString());
+                    default -> {
+                        // Other directives bind nothing
+                    }
+                }
+            }
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                bind(node.jjtGetChild(i));
+            }
+        }
+
+        private void read(Node node, boolean optional) {
+            switch (node) {
+                case ASTSetDirective set -> {
+                    Node target = set.jjtGetChild(0);
+                    if (target.jjtGetNumChildren() > 0) {
+                        read(target, false);
+                    }
+                    // A plain reference on the right is an alias, read where the variable is used
+                    if (plainReference(set.jjtGetChild(1)) == null) {
+                        read(set.jjtGetChild(1), false);
+                    }
+                }
+                case ASTDirective directive -> readDirective(directive);
+                case ASTIfStatement ifStatement -> readConditional(ifStatement);
+                case ASTElseIfStatement elseIf -> readConditional(elseIf);
+                case ASTReference reference -> readReference(reference, optional);
+                case ASTStringLiteral literal when !literal.isConstant() -> {
+                    // Interpolated strings are parsed by Velocity on their own; their references are not visible here
+                    projectable = false;
+                    readChildren(node, optional);
+                }
+                // Conditions are optional throughout, e.g. both sides of #if($a && $b)
+                default -> readChildren(node, optional);
+            }
+        }
+
+        private void readConditional(Node conditional) {
+            read(conditional.jjtGetChild(0), true);
+            for (int i = 1; i < conditional.jjtGetNumChildren(); i++) {
+                read(conditional.jjtGetChild(i), false);
+            }
+        }
+
+        private void readDirective(ASTDirective directive) {
+            String name = directive.getDirectiveName();
+            switch (name) {
+                case "foreach" -> {
+                    ASTReference iterable = directive.jjtGetNumChildren() > 2 ? plainReference(directive.jjtGetChild(2)) : null;
+                    if (iterable != null) {
+                        // Iterated, not read as a whole: the loop variable's uses tell what is read of each element
+                        for (String path : paths(iterable)) {
+                            walkedPaths.add(path + "[]");
+                        }
+                        use(iterable, false);
+                    }
+                    for (int i = iterable != null ? 3 : 1; i < directive.jjtGetNumChildren(); i++) {
+                        read(directive.jjtGetChild(i), false);
+                    }
+                }
+                case "macro" -> {
+                    if (!inLibrary) {
+                        macrosDefined.add(((ASTWord) directive.jjtGetChild(0)).getFirstTokenImage());
+                    }
+                    Node body = directive.jjtGetChild(directive.jjtGetNumChildren() - 1);
+                    if (body instanceof ASTBlock) {
+                        read(body, false);
+                    }
+                }
+                case "parse", "include" -> {
+                    if (inLibrary) {
+                        // Left to the library's own analysis; for the template, the library may read anything
+                        projectable = false;
+                        return;
+                    }
+                    for (int i = 0; i < directive.jjtGetNumChildren(); i++) {
+                        Node argument = directive.jjtGetChild(i);
+                        if (argument instanceof ASTStringLiteral literal && literal.isConstant()) {
+                            includes.add(String.valueOf(literal.value(null)));
+                        } else {
+                            dynamicIncludes = true;
+                            read(argument, false);
+                        }
+                    }
+                }
+                case "evaluate" -> {
+                    if (inLibrary) {
+                        projectable = false;
+                    } else {
+                        evaluates = true;
+                    }
+                    readChildren(directive, false);
+                }
+                case NoCacheDirective.NAME -> {
+                    // The library's own analysis decides whether output calling it can be cached
+                    if (!inLibrary) {
+                        noCache = true;
+                    }
+                }
+                default -> {
+                    if (directive.getRuntimeServices().getDirective(name) == null) {
+                        (inLibrary ? libraryMacrosUsed : macrosUsed).add(name);
+                    }
+                    readChildren(directive, false);
+                }
+            }
+        }
+
+        private void readReference(ASTReference reference, boolean optional) {
+            for (String path : paths(reference)) {
+                readPaths.add(path);
+            }
+            String image = reference.getFirstTokenImage();
+            use(reference, optional || (image != null && image.startsWith("$!")));
+            // Method arguments and indexes can hold references of their own
+            readChildren(reference, optional);
+        }
+
+        private void readChildren(Node node, boolean optional) {
+            for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+                read(node.jjtGetChild(i), optional);
+            }
+        }
+
+        private void alias(String variable, Set<String> paths, String suffix) {
+            Set<String> bound = aliases.computeIfAbsent(variable, key -> new LinkedHashSet<>());
+            for (String path : paths) {
+                bound.add(path + suffix);
+            }
+        }
+
+        /**
+         * Data paths a reference may stand for: its own, plus those of the variables it starts from.
+         */
+        private Set<String> paths(ASTReference reference) {
+            String properties = String.join(".", properties(reference));
+            String suffix = properties.isEmpty() ? "" : "." + properties;
+            Set<String> paths = new LinkedHashSet<>();
+            paths.add(reference.getRootString() + suffix);
+            for (String path : aliases.getOrDefault(reference.getRootString(), Set.of())) {
+                paths.add(path + suffix);
+            }
+            return paths;
+        }
+
+        private static List<String> properties(ASTReference reference) {
+            List<String> properties = new ArrayList<>();
+            for (int i = 0; i < reference.jjtGetNumChildren(); i++) {
+                if (!(reference.jjtGetChild(i) instanceof ASTIdentifier identifier)) {
+                    break;
+                }
+                properties.add(identifier.getIdentifier());
+            }
+            return properties;
+        }
+
+        /**
+         * Records a reference of the template as written; references in the library are not the template's.
+         */
+        private void use(ASTReference reference, boolean optional) {
+            if (inLibrary) {
+                return;
+            }
+            List<String> properties = properties(reference);
+            StringBuilder text = new StringBuilder("$").append(reference.getRootString());
+            properties.forEach(property -> text.append('.').append(property));
+            uses.add(new TemplateAnalysis.ReferenceUse(text.toString(), reference.getRootString(), List.copyOf(properties),
+                    reference.getLine(), reference.getColumn(), optional));
+        }
+
+        /**
+         * The reference an expression consists of, if it is nothing but a chain of properties.
+         */
+        private static ASTReference plainReference(Node node) {
+            while (node instanceof ASTExpression && node.jjtGetNumChildren() == 1) {
+                node = node.jjtGetChild(0);
+            }
+            if (node instanceof ASTReference reference && properties(reference).size() == reference.jjtGetNumChildren()) {
+                return reference;
+            }
+            return null;
+        }
+    }
+}
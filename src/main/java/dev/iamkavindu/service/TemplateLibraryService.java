@@ -0,0 +1,145 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.TemplateNotFoundException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.repository.StoredTemplate;
+import dev.iamkavindu.repository.TemplateId;
+import dev.iamkavindu.repository.TemplateRepository;
+import org.apache.velocity.Template;
+import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.exception.ResourceNotFoundException;
+import org.apache.velocity.exception.VelocityException;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named, versioned templates kept in the {@link TemplateRepository}.
+ * The latest version of every template is parsed once at startup, before the application
+ * reports ready, so rendering a stored template by id costs two map lookups: one to
+ * resolve the latest version, one in Velocity's resource cache.
+ * The template named like the {@link MacroLibrary} is the macro library; saving it replaces the
+ * library for every render that starts afterwards.
+ */
+@Service
+public class TemplateLibraryService {
+
+    private final TemplateRepository templateRepository;
+    private final VelocityEngine velocityEngine;
+    private final VelocityTemplateService velocityTemplateService;
+    private final RenderMetrics renderMetrics;
+    private final RenderOutputCache renderOutputCache;
+    private final MacroLibrary macroLibrary;
+    private final Map<String, Integer> latestVersions = new ConcurrentHashMap<>();
+
+    public TemplateLibraryService(TemplateRepository templateRepository,
+                                  VelocityEngine velocityEngine,
+                                  VelocityTemplateService velocityTemplateService,
+                                  RenderMetrics renderMetrics,
+                                  RenderOutputCache renderOutputCache,
+                                  MacroLibrary macroLibrary) {
+        this.templateRepository = templateRepository;
+        this.velocityEngine = velocityEngine;
+        this.velocityTemplateService = velocityTemplateService;
+        this.renderMetrics = renderMetrics;
+        this.renderOutputCache = renderOutputCache;
+        this.macroLibrary = macroLibrary;
+    }
+
+    /**
+     * Parses the latest version of every stored template. A template that fails to parse is
+     * still registered, so rendering it reports the parse error instead of "not found".
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void precompile() throws IOException {
+        for (StoredTemplate template : templateRepository.findAllLatest()) {
+            latestVersions.put(template.name(), template.version());
+            try {
+                velocityEngine.getTemplate(template.id().toString());
+                if (template.name().equals(macroLibrary.name())) {
+                    macroLibrary.use(template.id());
+                }
+            } catch (VelocityException e) {
+                // Reported when the template is rendered
+            }
+        }
+    }
+
+    /**
+     * Returns the parsed form of a stored template.
+     */
+    public Template get(TemplateId id, RenderChannel channel) throws TemplateRenderException {
+        TemplateId resolved = id.isLatest() ? id.withVersion(latestVersion(id.name())) : id;
+        try {
+            return velocityEngine.getTemplate(resolved.toString());
+        } catch (ResourceNotFoundException e) {
+            throw new TemplateNotFoundException("No stored template: " + id);
+        } catch (VelocityException e) {
+            renderMetrics.failure(channel, RenderMetrics.Failure.TEMPLATE);
+            throw new TemplateRenderException("Template parsing failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Validates the source and stores it as the next version of the named template.
+     * Templates that pull in this one by name see the new version from their next render on,
+     * and their cached output is dropped.
+     */
+    public StoredTemplate save(String name, String source, RenderChannel channel)
+            throws TemplateRenderException, IOException {
+        TemplateId.requireValidName(name);
+        velocityTemplateService.compile(source, channel);
+
+        StoredTemplate saved = templateRepository.save(name, source);
+        velocityEngine.getTemplate(saved.id().toString());
+        latestVersions.merge(name, saved.version(), Math::max);
+        if (name.equals(macroLibrary.name())) {
+            macroLibrary.use(saved.id());
+        }
+        StoredTemplateResourceManager resourceManager = StoredTemplateResourceManager.of(velocityEngine);
+        if (resourceManager != null) {
+            resourceManager.evict(name);
+        }
+        renderOutputCache.invalidateDependents(name);
+        return saved;
+    }
+
+    public Optional<StoredTemplate> find(TemplateId id) throws IOException {
+        return templateRepository.find(id);
+    }
+
+    /**
+     * Names of all stored templates with their latest versions, in name order.
+     */
+    public Map<String, Integer> latestVersions() {
+        return new TreeMap<>(latestVersions);
+    }
+
+    private int latestVersion(String name) throws TemplateNotFoundException {
+        Integer cached = latestVersions.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        // Added to the repository behind our back, e.g. by another instance sharing it
+        OptionalInt stored;
+        try {
+            stored = templateRepository.latestVersion(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (stored.isEmpty()) {
+            throw new TemplateNotFoundException("No stored template: " + name);
+        }
+        return latestVersions.merge(name, stored.getAsInt(), Math::max);
+    }
+}
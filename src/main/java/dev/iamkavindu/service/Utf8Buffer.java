@@ -0,0 +1,154 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writer that encodes straight into a growable UTF-8 byte array, so rendered output
+ * never exists as a {@code String} or {@code char[]} copy on its way to the wire.
+ * Unpaired surrogates are encoded as {@code ?}, as {@link String#getBytes} does.
+ * Instances are reused through {@link OutputBufferPool} and are not thread-safe.
+ */
+final class Utf8Buffer extends Writer {
+
+    private byte[] bytes;
+    private int size;
+    private char highSurrogate;
+
+    Utf8Buffer(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    @Override
+    public void write(int c) {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        ensureCapacity(size + length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            encode(buffer[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        ensureCapacity(size + length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            encode(text.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Nothing is buffered beyond the byte array
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    /**
+     * Encodes a dangling high surrogate, if any. Call once all output has been written.
+     */
+    void finish() {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            put((byte) '?');
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return bytes.length;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    void writeTo(OutputStream out, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    byte byteAt(int index) {
+        return bytes[index];
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    void reset() {
+        size = 0;
+        highSurrogate = 0;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void encode(char c) {
+        if (c < 0x80 && highSurrogate == 0) {
+            put((byte) c);
+        } else {
+            encodeNonAscii(c);
+        }
+    }
+
+    private void encodeNonAscii(char c) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensureCapacity(size + 4);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            put((byte) '?');
+        }
+
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            ensureCapacity(size + 2);
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            put((byte) '?');
+        } else {
+            ensureCapacity(size + 3);
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void put(byte b) {
+        if (size == bytes.length) {
+            ensureCapacity(size + 1);
+        }
+        bytes[size++] = b;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(required, bytes.length * 2));
+        }
+    }
+}
@@ -1,51 +1,242 @@
 package dev.iamkavindu.service;
 
+import dev.iamkavindu.cache.CacheStats;
+import dev.iamkavindu.cache.ContentHash;
+import dev.iamkavindu.cache.WeightedLruCache;
+import dev.iamkavindu.errors.InvalidOutputException;
+import dev.iamkavindu.errors.MacroDepthExceededException;
+import dev.iamkavindu.errors.RenderLimitExceededException;
 import dev.iamkavindu.errors.TemplateRenderException;
-import org.apache.velocity.VelocityContext;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import org.apache.velocity.Template;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.app.event.EventCartridge;
+import org.apache.velocity.exception.MacroOverflowException;
+import org.apache.velocity.exception.VelocityException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Map;
 
 /**
- * Apache Velocity implementation of TemplateRenderService.
- * Initializes VelocityEngine once as a singleton Spring bean (DRY principle).
- * Configured for string-based template processing (not file-based).
+ * Renders Velocity templates for the UI, the API and batches. Template source is parsed once and
+ * cached by content hash. Each merge gets its own {@link RenderContext} over the caller's data, the
+ * {@link GlobalContext} and the {@link MacroLibrary}, runs while holding a {@link RenderWorkerPool}
+ * slot and is governed by a {@link RenderBudget}: a render that exceeds its {@link RenderLimits}
+ * fails with a subclass of {@link RenderLimitExceededException}. Output passes through an
+ * {@link OutputPipeline} into either the caller's writer or a pooled UTF-8 buffer.
  */
 @Service
 public class VelocityTemplateService {
 
+    /**
+     * Rough ratio between template source length and the retained size of its parsed AST.
+     */
+    private static final int ESTIMATED_BYTES_PER_CHAR = 8;
+
+    /**
+     * Inline templates are named after the hash of their source.
+     */
+    static final String INLINE_NAME_PREFIX = "TemplateRenderer@";
+
     private final VelocityEngine velocityEngine;
-    private final VelocityContext velocityContext;
+    private final GlobalContext globalContext;
+    private final InlineTemplateLoader inlineTemplateLoader;
+    private final MacroLibrary macroLibrary;
+    private final RenderMetrics renderMetrics;
+    private final RenderLimits renderLimits;
+    private final RenderWorkerPool renderWorkerPool;
+    private final WeightedLruCache<ContentHash, Template> templateCache;
+    private final OutputBufferPool outputBufferPool;
+    private final OutputSizeHints outputSizeHints = new OutputSizeHints();
 
-    public VelocityTemplateService(VelocityEngine velocityEngine, VelocityContext velocityContext) {
+    public VelocityTemplateService(VelocityEngine velocityEngine,
+                                   GlobalContext globalContext,
+                                   InlineTemplateLoader inlineTemplateLoader,
+                                   MacroLibrary macroLibrary,
+                                   RenderMetrics renderMetrics,
+                                   RenderLimits renderLimits,
+                                   RenderWorkerPool renderWorkerPool,
+                                   @Value("${velocity-renderer.template-cache.max-entries:256}") int maxEntries,
+                                   @Value("${velocity-renderer.template-cache.max-weight-bytes:16777216}") long maxWeightBytes) {
         this.velocityEngine = velocityEngine;
-        this.velocityContext = velocityContext;
+        this.globalContext = globalContext;
+        this.inlineTemplateLoader = inlineTemplateLoader;
+        this.macroLibrary = macroLibrary;
+        this.renderMetrics = renderMetrics;
+        this.renderLimits = renderLimits;
+        this.renderWorkerPool = renderWorkerPool;
+        this.templateCache = new WeightedLruCache<>(maxEntries, maxWeightBytes);
+        this.outputBufferPool = new OutputBufferPool(Runtime.getRuntime().availableProcessors());
+        renderMetrics.monitorCache("templates", templateCache::stats);
+    }
+
+    /**
+     * Renders template source to a string, e.g. for tools and tests.
+     */
+    public String render(String template, Map<String, Object> context, RenderChannel channel)
+            throws TemplateRenderException {
+        StringWriter writer = new StringWriter();
+        merge(compile(template, channel), context, writer, channel, RenderBudget.start(renderLimits), OutputPipeline.NONE);
+        return writer.toString();
     }
 
-    public String render(String template, Map<String, Object> context) throws TemplateRenderException {
+    /**
+     * Merges a compiled template into the given writer, passing the output through the pipeline on its way.
+     * A writer other than a {@link StringWriter}, such as a servlet response, is written to without
+     * holding the worker slot, so the output is never buffered whole.
+     *
+     * @param budget the render's budget, which the caller may {@link RenderBudget#cancel() cancel}
+     *               once the result is no longer wanted
+     */
+    public void merge(Template compiled, Map<String, Object> context, Writer target, RenderChannel channel,
+                      RenderBudget budget, OutputPipeline pipeline) throws TemplateRenderException {
+        long start = renderMetrics.start();
+        try {
+            outputSizeHints.record(compiled, mergeTimed(compiled, context, target, channel, budget, pipeline));
+        } finally {
+            renderMetrics.stop(channel, RenderMetrics.Stage.TOTAL, start);
+        }
+    }
+
+    /**
+     * Merges a compiled template like {@link #merge}, encoding straight into a pooled UTF-8 buffer.
+     * The buffer is sized from what the same template produced last time, so it rarely grows.
+     * The caller must close the result.
+     */
+    public RenderedOutput mergeUtf8(Template compiled, Map<String, Object> context, RenderChannel channel,
+                                    RenderBudget budget, OutputPipeline pipeline) throws TemplateRenderException {
+        Utf8Buffer buffer = outputBufferPool.acquire(outputSizeHints.expected(compiled));
+        try {
+            merge(compiled, context, buffer, channel, budget, pipeline);
+        } catch (TemplateRenderException | RuntimeException e) {
+            outputBufferPool.release(buffer);
+            throw e;
+        }
+        buffer.finish();
+        return new RenderedOutput(buffer, outputBufferPool);
+    }
+
+    /**
+     * Returns the parsed form of the given template, parsing it only on a cache miss.
+     */
+    public Template compile(String template, RenderChannel channel) throws TemplateRenderException {
         if (template == null) {
             throw new TemplateRenderException("Template cannot be null");
         }
+        renderMetrics.templateSize(channel, template.length());
+        return cached(template, channel);
+    }
+
+    public CacheStats templateCacheStats() {
+        return templateCache.stats();
+    }
 
+    public RenderLimits renderLimits() {
+        return renderLimits;
+    }
+
+    private Template cached(String template, RenderChannel channel) throws TemplateRenderException {
+        ContentHash hash = ContentHash.of(template);
+        Template cached = templateCache.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+
+        Template compiled;
+        long start = renderMetrics.start();
+        try {
+            compiled = inlineTemplateLoader.load(velocityEngine, INLINE_NAME_PREFIX + hash.toHex(), template);
+        } catch (VelocityException e) {
+            renderMetrics.failure(channel, RenderMetrics.Failure.TEMPLATE);
+            throw new TemplateRenderException("Template parsing failed: " + e.getMessage(), e);
+        } finally {
+            renderMetrics.stop(channel, RenderMetrics.Stage.TEMPLATE_PARSE, start);
+        }
+        templateCache.put(hash, compiled, (long) template.length() * ESTIMATED_BYTES_PER_CHAR);
+        return compiled;
+    }
+
+    /**
+     * Merges while holding a worker slot. Output for this service's own in-memory writers is
+     * written under the slot; any other writer may block on a slow receiver, so it is written to
+     * in chunks with the slot given up meanwhile, and the last chunk after the slot is released.
+     *
+     * @return number of characters written, before post-processing
+     */
+    private long mergeTimed(Template compiled, Map<String, Object> context, Writer writer, RenderChannel channel,
+                            RenderBudget budget, OutputPipeline pipeline) throws TemplateRenderException {
         if (context == null) {
+            renderMetrics.failure(channel, RenderMetrics.Failure.TEMPLATE);
             throw new TemplateRenderException("Context cannot be null");
         }
 
-        context.forEach(velocityContext::put);
-        StringWriter writer = new StringWriter();
-
-        boolean success = velocityEngine.evaluate(
-                velocityContext,
-                writer,
-                "TemplateRenderer",
-                template
-        );
+        RenderContext renderContext = new RenderContext(context, globalContext, budget);
+        EventCartridge eventCartridge = pipeline.eventCartridge();
+        if (eventCartridge != null) {
+            renderContext.attachEventCartridge(eventCartridge);
+        }
+        SlotReleasingWriter offSlot = writer instanceof Utf8Buffer || writer instanceof StringWriter
+                ? null
+                : new SlotReleasingWriter(writer, renderWorkerPool, channel);
+        renderWorkerPool.acquire(channel);
+        long start = renderMetrics.start();
+        CountingWriter output;
+        try {
+            Writer staged = pipeline.wrap(offSlot != null ? offSlot : writer);
+            output = new BoundedWriter(staged, budget);
+            compiled.merge(renderContext, output, macroLibrary.resources());
+            if (staged instanceof StageWriter stage) {
+                stage.finish();
+            }
+        } catch (VelocityException | IOException e) {
+            TemplateRenderException stopped = governanceFailure(e);
+            if (stopped != null) {
+                if (stopped instanceof RenderLimitExceededException) {
+                    renderMetrics.failure(channel, RenderMetrics.Failure.LIMIT);
+                } else if (stopped instanceof InvalidOutputException) {
+                    renderMetrics.failure(channel, RenderMetrics.Failure.OUTPUT);
+                }
+                throw stopped;
+            }
+            renderMetrics.failure(channel, RenderMetrics.Failure.TEMPLATE);
+            throw new TemplateRenderException("Template evaluation failed: " + e.getMessage(), e);
+        } finally {
+            renderMetrics.stop(channel, RenderMetrics.Stage.MERGE, start);
+            renderWorkerPool.release();
+        }
+        if (offSlot != null) {
+            try {
+                offSlot.drain();
+            } catch (IOException e) {
+                renderMetrics.failure(channel, RenderMetrics.Failure.TEMPLATE);
+                throw new TemplateRenderException("Template evaluation failed: " + e.getMessage(), e);
+            }
+        }
+        renderMetrics.outputSize(channel, output.count());
+        return output.count();
+    }
 
-        if (!success) {
-            throw new TemplateRenderException("Template evaluation failed");
+    /**
+     * Finds out whether a render was stopped by its budget, by the macro depth limit or by an output stage.
+     * Velocity wraps some exceptions on their way out, so the whole cause chain is searched.
+     */
+    private static TemplateRenderException governanceFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RenderBudget.Exhausted exhausted) {
+                return exhausted.reason();
+            }
+            if (cause instanceof StageWriter.Rejected rejected) {
+                return rejected.reason();
+            }
+            if (cause instanceof MacroOverflowException) {
+                return new MacroDepthExceededException("Macro calls nested too deeply: " + cause.getMessage(), cause);
+            }
         }
-        return writer.toString();
+        return null;
     }
 }
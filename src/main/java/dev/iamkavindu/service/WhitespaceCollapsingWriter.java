@@ -0,0 +1,58 @@
+package dev.iamkavindu.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Tidies the blank space directives and indentation leave behind: lines lose their leading and
+ * trailing blanks, runs of blanks within a line become one space, runs of blank lines become one,
+ * and blank lines at the start and end of the output are dropped. Line breaks come out as {@code \n}.
+ */
+final class WhitespaceCollapsingWriter extends StageWriter {
+
+    private boolean started;
+    private boolean lineStart = true;
+    private boolean blank;
+    private int lineBreaks;
+
+    WhitespaceCollapsingWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    void process(char c) throws IOException {
+        switch (c) {
+            case ' ', '\t', '\r', '\f' -> blank = !lineStart;
+            case '\n' -> {
+                blank = false;
+                lineStart = true;
+                lineBreaks = Math.min(lineBreaks + 1, 2);
+            }
+            default -> {
+                if (started) {
+                    for (int i = 0; i < lineBreaks; i++) {
+                        emit('\n');
+                    }
+                }
+                if (blank) {
+                    emit(' ');
+                }
+                emit(c);
+                started = true;
+                lineStart = false;
+                blank = false;
+                lineBreaks = 0;
+            }
+        }
+    }
+
+    @Override
+    void finish() throws IOException {
+        if (started && lineBreaks > 0) {
+            emit('\n');
+        }
+        blank = false;
+        lineBreaks = 0;
+        super.finish();
+    }
+}
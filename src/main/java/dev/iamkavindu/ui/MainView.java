@@ -1,6 +1,9 @@
 package dev.iamkavindu.ui;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.checkbox.Checkbox;
@@ -8,48 +11,123 @@ import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Footer;
 import com.vaadin.flow.component.html.Header;
-import com.vaadin.flow.component.html.IFrame;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.page.PendingJavaScriptResult;
 import com.vaadin.flow.component.splitlayout.SplitLayout;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.i18n.LocaleChangeEvent;
 import com.vaadin.flow.i18n.LocaleChangeObserver;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.shared.Registration;
 import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.repository.Workspace;
+import dev.iamkavindu.repository.WorkspaceStore;
 import dev.iamkavindu.service.JsonParserService;
+import dev.iamkavindu.service.JsonProjection;
+import dev.iamkavindu.service.OutputPipeline;
+import dev.iamkavindu.service.RenderBudget;
+import dev.iamkavindu.service.RenderedOutput;
+import dev.iamkavindu.service.TemplateAnalyzer;
 import dev.iamkavindu.service.VelocityTemplateService;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import org.apache.velocity.Template;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 
 /**
  * MainView - Velocity Template Renderer
  * <p>
  * A web-based tool for rendering HTML content with Apache Velocity syntax.
  * Uses sandboxed iframe for secure HTML preview with optional JavaScript execution.
+ * Previews are rendered in the background by a {@link RenderScheduler}, so slow templates
+ * never block the editors. They are rendered straight to UTF-8, and documents too large to
+ * send inline are loaded by the preview frame from the {@link PreviewStore}.
+ * <p>
+ * In low-footprint mode the session keeps no editor or preview text: the editors are not
+ * synchronized with the server, their contents travel with each render request only, and
+ * the rendered document is loaded by the preview frame from a shared {@link PreviewStore}.
+ * <p>
+ * The workspace, editor contents and settings, is saved and restored with one round trip to
+ * the browser's local storage each. With a {@link WorkspaceStore}, editor contents are kept on
+ * the server instead, under a random id the browser remembers.
  */
 @Route("")
 public final class MainView extends VerticalLayout implements LocaleChangeObserver {
 
     private static final Locale LOCALE_EN = Locale.ENGLISH;
     private static final Locale LOCALE_SI = Locale.forLanguageTag("si");
+    private static final Logger log = LoggerFactory.getLogger(MainView.class);
+
+    /**
+     * $0 entries to write, null values removing theirs; $1 keys to store the editor contents under, or null.
+     */
+    private static final String STORE_JS = """
+            for (const [key, value] of Object.entries($0)) {
+                value === null ? localStorage.removeItem(key) : localStorage.setItem(key, value);
+            }
+            if ($1) {
+                $1.forEach((key, i) => localStorage.setItem(key, this.__vrEditors[i].value));
+            }
+            """;
+
+    /**
+     * $0 keys to read; $1 keys to fill the editors from right in the browser, or null.
+     */
+    private static final String LOAD_JS = """
+            const values = Object.fromEntries($0.map(key => [key, localStorage.getItem(key)]));
+            if ($1) {
+                $1.forEach((key, i) => this.__vrEditors[i].value = values[key] || '');
+            }
+            return values;
+            """;
+
+    private static final Duration SAVED_FEEDBACK = Duration.ofSeconds(2);
 
     private transient VelocityTemplateService velocityTemplateService;
     private transient JsonParserService jsonParserService;
+    private transient TemplateAnalyzer templateAnalyzer;
+    private transient PreviewStore previewStore;
+    private transient RenderMetrics renderMetrics;
+    private transient TaskScheduler taskScheduler;
+    private transient WorkspaceStore workspaceStore;
+    private final transient RenderScheduler renderScheduler;
+    /**
+     * The UI while the view is attached, for background threads, which must not call {@code getUI()}.
+     */
+    private volatile UI ui;
 
     private final int liveRenderDelay;
+    private final boolean differentialPreview;
+    private final int srcdocMaxBytes;
+    private final boolean lowFootprint;
 
     private TextArea htmlEditor;
     private TextArea jsonEditor;
 
-    private IFrame previewFrame;
+    private PreviewFrame previewFrame;
     private Checkbox jsToggle;
     private Checkbox liveRenderToggle;
 
@@ -62,12 +140,35 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
     private Registration htmlEditorRegistration;
     private Registration jsonEditorRegistration;
 
+    private String workspaceId;
+    /**
+     * Set while a whole workspace is applied, so the components' listeners neither render nor save.
+     */
+    private boolean applyingWorkspace;
+
     public MainView(VelocityTemplateService velocityTemplateService,
                     JsonParserService jsonParserService,
-                    @Value("${velocity-renderer.live-render-delay:2000}") int liveRenderDelay) {
+                    TemplateAnalyzer templateAnalyzer,
+                    PreviewStore previewStore,
+                    RenderMetrics renderMetrics,
+                    TaskScheduler taskScheduler,
+                    Optional<WorkspaceStore> workspaceStore,
+                    @Value("${velocity-renderer.live-render-delay:2000}") int liveRenderDelay,
+                    @Value("${velocity-renderer.preview.differential-updates:true}") boolean differentialPreview,
+                    @Value("${velocity-renderer.preview.srcdoc-max-bytes:262144}") int srcdocMaxBytes,
+                    @Value("${velocity-renderer.ui.low-footprint:false}") boolean lowFootprint) {
         this.velocityTemplateService = velocityTemplateService;
         this.jsonParserService = jsonParserService;
+        this.templateAnalyzer = templateAnalyzer;
+        this.previewStore = previewStore;
+        this.renderMetrics = renderMetrics;
+        this.taskScheduler = taskScheduler;
+        this.workspaceStore = workspaceStore.orElse(null);
         this.liveRenderDelay = liveRenderDelay;
+        this.differentialPreview = differentialPreview;
+        this.srcdocMaxBytes = srcdocMaxBytes;
+        this.lowFootprint = lowFootprint;
+        this.renderScheduler = new RenderScheduler(velocityTemplateService.renderLimits(), this::accessAttached);
 
         setSizeFull();
         setPadding(false);
@@ -75,8 +176,7 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
 
         initializeComponents();
         buildLayout();
-        loadStoredContent();
-        loadStoredLocale();
+        restoreWorkspace();
     }
 
     private void initializeComponents() {
@@ -141,22 +241,38 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
         jsonEditor.setValueChangeTimeout(liveRenderDelay);
         jsonEditor.getStyle().set("font-family", "'Courier New', monospace");
         jsonEditor.getStyle().set("font-size", "14px");
+
+        if (lowFootprint) {
+            // The editors' contents stay in the browser; renders read them from there
+            htmlEditor.setValueChangeMode(null);
+            jsonEditor.setValueChangeMode(null);
+        }
+        getElement().executeJs("this.__vrEditors = [$0, $1]", htmlEditor.getElement(), jsonEditor.getElement());
     }
 
     private void createPreviewFrame() {
-        previewFrame = new IFrame();
+        previewFrame = lowFootprint
+                ? new PreviewFrame(previewStore)
+                : new PreviewFrame(differentialPreview, previewStore, srcdocMaxBytes);
+        translatePreviewMessages();
         previewFrame.setSizeFull();
         previewFrame.getStyle().set("border", "1px solid var(--lumo-contrast-20pct)");
         previewFrame.getStyle().set("background", "white");
+        previewFrame.showDocument(getTranslation("ui.message.preview.default-message"));
+    }
 
-        previewFrame.getElement().setAttribute("sandbox", "allow-same-origin");
-        previewFrame.getElement().setAttribute("srcdoc", getTranslation("ui.message.preview.default-message"));
+    private void translatePreviewMessages() {
+        previewFrame.setExpiredMessage(getTranslation("ui.message.preview.expired"));
+        previewFrame.setPageLabels(getTranslation("ui.message.preview.page"),
+                getTranslation("ui.message.preview.previous-page"), getTranslation("ui.message.preview.next-page"));
     }
 
     private void createButtons() {
         saveButton = new Button(getTranslation("ui.button.save"));
         saveButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
-        saveButton.addClickListener(e -> saveToLocalStorage());
+        saveButton.addClickListener(e -> saveWorkspace());
+        // The server store needs this browser's workspace id, which arrives with the restored workspace
+        saveButton.setEnabled(workspaceStore == null);
 
         clearButton = new Button(getTranslation("ui.button.clear"));
         clearButton.addThemeVariants(ButtonVariant.LUMO_ERROR);
@@ -169,13 +285,11 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
         jsToggle.setValue(false);
 
         jsToggle.addValueChangeListener(e -> {
-            if (e.getValue()) {
-                previewFrame.getElement().setAttribute("sandbox", "allow-same-origin allow-scripts");
-            } else {
-                previewFrame.getElement().setAttribute("sandbox", "allow-same-origin");
+            previewFrame.setScriptsEnabled(e.getValue());
+            if (!applyingWorkspace) {
+                updatePreview();
+                storeInBrowser(Map.of(getTranslation("ui.storage.key.js"), String.valueOf(e.getValue())), false);
             }
-            updatePreview();
-            saveToLocalStorageJs(getTranslation("ui.storage.key.js"), String.valueOf(e.getValue()));
         });
     }
 
@@ -184,14 +298,10 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
         liveRenderToggle.setValue(true);
 
         liveRenderToggle.addValueChangeListener(e -> {
-            if (e.getValue()) {
-                attachEditorListeners();
-                renderButton.setEnabled(false);
-            } else {
-                detachEditorListeners();
-                renderButton.setEnabled(true);
+            setLiveRender(e.getValue());
+            if (!applyingWorkspace) {
+                storeInBrowser(Map.of(getTranslation("ui.storage.key.live-render"), String.valueOf(e.getValue())), false);
             }
-            saveToLocalStorageJs(getTranslation("ui.storage.key.live-render"), String.valueOf(e.getValue()));
         });
     }
 
@@ -219,7 +329,9 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
             if (e.getValue() != null) {
                 getUI().ifPresent(ui -> {
                     ui.setLocale(e.getValue());
-                    saveToLocalStorageJs(getTranslation("ui.storage.key.locale"), e.getValue().toLanguageTag());
+                    if (!applyingWorkspace) {
+                        storeInBrowser(Map.of(getTranslation("ui.storage.key.locale"), e.getValue().toLanguageTag()), false);
+                    }
                 });
             }
         });
@@ -271,43 +383,84 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
     }
 
     private void updatePreview() {
-        String htmlTemplate = htmlEditor.getValue();
-        String jsonString = jsonEditor.getValue();
+        if (!applyingWorkspace) {
+            readEditors(this::updatePreview);
+        }
+    }
 
+    /**
+     * Passes the editor contents on, straight from the server-side values or, in low-footprint
+     * mode, after one round trip to the browser.
+     */
+    private void readEditors(BiConsumer<String, String> action) {
+        if (!lowFootprint) {
+            action.accept(htmlEditor.getValue(), jsonEditor.getValue());
+            return;
+        }
+        getElement().executeJs("return this.__vrEditors.map(editor => editor.value)")
+                .then(JsonArray.class, values -> action.accept(values.getString(0), values.getString(1)));
+    }
+
+    /**
+     * Schedules a render of the given editor contents. Everything the background render
+     * needs is read here, on the UI thread; the result is applied through {@code UI.access}.
+     */
+    private void updatePreview(String htmlTemplate, String jsonString) {
         if (htmlTemplate == null || htmlTemplate.trim().isEmpty()) {
-            previewFrame.getElement()
-                    .setAttribute("srcdoc", getTranslation("ui.message.preview.default-message"));
+            renderScheduler.cancel();
+            previewFrame.showDocument(getTranslation("ui.message.preview.default-message"));
             return;
         }
 
-        try {
-            Map<String, Object> context;
-            if (jsonString == null || jsonString.trim().isEmpty()) {
-                context = new HashMap<>();
-            } else {
-                context = jsonParserService.parseJsonToMap(jsonString);
+        String invalidJsonPrefix = getTranslation("ui.message.error.invalid-json.prefix");
+        String jsonErrorTitle = getTranslation("ui.message.error.json-parse.title");
+        String templateErrorPrefix = getTranslation("ui.message.error.template");
+        String templateErrorTitle = getTranslation("ui.message.error.template-render.title");
+
+        renderScheduler.submit(budget -> {
+            try {
+                // Handed to the frame as rendered; if the result is dropped unapplied, the buffer is left to the GC
+                RenderedOutput document = render(htmlTemplate, jsonString, budget);
+                return () -> {
+                    previewFrame.showDocument(document);
+                    recordFootprint();
+                };
+            } catch (IllegalArgumentException e) {
+                return showError(invalidJsonPrefix, jsonErrorTitle, e.getMessage());
+            } catch (TemplateRenderException e) {
+                return showError(templateErrorPrefix, templateErrorTitle, e.getMessage());
             }
+        });
+    }
 
-            String renderedHtml = velocityTemplateService.render(htmlTemplate, context);
+    private RenderedOutput render(String htmlTemplate, String jsonString, RenderBudget budget)
+            throws TemplateRenderException {
+        Template compiled = velocityTemplateService.compile(htmlTemplate, RenderChannel.UI);
+        Map<String, Object> context;
+        if (jsonString == null || jsonString.trim().isEmpty()) {
+            context = new HashMap<>();
+        } else {
+            // Large documents keep only what the template reads
+            JsonProjection projection = templateAnalyzer.analyze(compiled).projection();
+            context = jsonParserService.parseJsonToContext(jsonString, projection, RenderChannel.UI);
+        }
 
-            previewFrame.getElement().setAttribute("srcdoc", renderedHtml);
-        } catch (IllegalArgumentException e) {
-            showErrorNotification(getTranslation("ui.message.error.invalid-json.prefix") + e.getMessage());
+        return velocityTemplateService.mergeUtf8(compiled, context, RenderChannel.UI, budget, OutputPipeline.NONE);
+    }
 
-            previewFrame.getElement().setAttribute("srcdoc",
-                    """
-                            <html>
-                                <body style='font-family: Arial, sans-serif; padding: 20px; color: #d32f2f;'>
-                                    <h3>%s</h3>
-                                    <p>%s</p>
-                                </body>
-                            </html>
-                            """.formatted(getTranslation("ui.message.error.json-parse.title"), escapeHtml(e.getMessage())));
+    /**
+     * Reports the editor and preview text this session keeps on the server.
+     */
+    private void recordFootprint() {
+        long editors = lowFootprint ? 0 : 2L * (htmlEditor.getValue().length() + jsonEditor.getValue().length());
+        renderMetrics.sessionContent(lowFootprint, editors + previewFrame.retainedBytes());
+    }
 
-        } catch (TemplateRenderException e) {
-            showErrorNotification(getTranslation("ui.message.error.template") + e.getMessage());
+    private Command showError(String notificationPrefix, String title, String message) {
+        return () -> {
+            showErrorNotification(notificationPrefix + message);
 
-            previewFrame.getElement().setAttribute("srcdoc",
+            previewFrame.showDocument(
                     """
                             <html>
                                 <body style='font-family: Arial, sans-serif; padding: 20px; color: #d32f2f;'>
@@ -315,8 +468,8 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
                                     <p>%s</p>
                                 </body>
                             </html>
-                            """.formatted(getTranslation("ui.message.error.template-render.title"), escapeHtml(e.getMessage())));
-        }
+                            """.formatted(title, escapeHtml(message)));
+        };
     }
 
     /**
@@ -341,123 +494,204 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
                 .replace("'", "&#x27;");
     }
 
-    private void saveToLocalStorage() {
-        String htmlContent = htmlEditor.getValue();
-        String jsonContent = jsonEditor.getValue();
+    /**
+     * Saves the workspace and shows "Saved" once the browser or the server store has taken it.
+     * With the server store, the button is enabled only once this browser's workspace id is known.
+     */
+    private void saveWorkspace() {
+        Map<String, String> settings = Map.of(getTranslation("ui.storage.key.js"), String.valueOf(jsToggle.getValue()));
+        String errorPrefix = getTranslation("ui.message.error.workspace-save");
+        if (workspaceStore == null) {
+            storeInBrowser(settings, true).then(stored -> showSaved(),
+                    error -> showErrorNotification(errorPrefix + error));
+            return;
+        }
 
-        saveToLocalStorageJs(getTranslation("ui.storage.key.html"), htmlContent != null ? htmlContent : "");
-        saveToLocalStorageJs(getTranslation("ui.storage.key.json"), jsonContent != null ? jsonContent : "");
-        saveToLocalStorageJs(getTranslation("ui.storage.key.js"), String.valueOf(jsToggle.getValue()));
+        storeInBrowser(settings, false);
+        readEditors((template, data) -> {
+            try {
+                workspaceStore.save(workspaceId, new Workspace(template, data));
+            } catch (IllegalArgumentException e) {
+                showErrorNotification(errorPrefix + e.getMessage());
+                return;
+            }
+            showSaved();
+        });
+    }
 
+    private void showSaved() {
         saveButton.setText(getTranslation("ui.button.saved"));
         saveButton.setEnabled(false);
-
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000);
-                getUI().ifPresent(ui -> ui.access(() -> {
-                    saveButton.setText(getTranslation("ui.button.save"));
-                    saveButton.setEnabled(true);
-                }));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }).start();
+        taskScheduler.schedule(() -> accessAttached(() -> {
+            saveButton.setText(getTranslation("ui.button.save"));
+            saveButton.setEnabled(true);
+        }), Instant.now().plus(SAVED_FEEDBACK));
     }
 
     private void clearAll() {
-        htmlEditor.clear();
-        jsonEditor.clear();
-        jsToggle.setValue(false);
-        liveRenderToggle.setValue(true);
+        applyingWorkspace = true;
+        try {
+            fillEditors(new Workspace("", ""));
+            jsToggle.setValue(false);
+            liveRenderToggle.setValue(true);
+        } finally {
+            applyingWorkspace = false;
+        }
 
-        removeFromLocalStorageJs(getTranslation("ui.storage.key.html"));
-        removeFromLocalStorageJs(getTranslation("ui.storage.key.json"));
-        removeFromLocalStorageJs(getTranslation("ui.storage.key.js"));
-        removeFromLocalStorageJs(getTranslation("ui.storage.key.live-render"));
+        Map<String, String> removed = new HashMap<>();
+        for (String key : List.of("ui.storage.key.html", "ui.storage.key.json", "ui.storage.key.js", "ui.storage.key.live-render")) {
+            removed.put(getTranslation(key), null);
+        }
+        storeInBrowser(removed, false);
+        if (workspaceStore != null && workspaceId != null) {
+            workspaceStore.delete(workspaceId);
+        }
 
-        updatePreview();
+        updatePreview("", "");
     }
 
-    private void loadStoredContent() {
-        getFromLocalStorageJs(getTranslation("ui.storage.key.html"), value -> {
-            if (value != null && !value.isEmpty()) {
-                htmlEditor.setValue(value);
-                updatePreview();
-            }
-        });
+    /**
+     * Reads the stored workspace with one round trip and applies it without intermediate
+     * renders, so the page renders once when it loads.
+     */
+    private void restoreWorkspace() {
+        String htmlKey = getTranslation("ui.storage.key.html");
+        String jsonKey = getTranslation("ui.storage.key.json");
+        String jsKey = getTranslation("ui.storage.key.js");
+        String liveRenderKey = getTranslation("ui.storage.key.live-render");
+        String localeKey = getTranslation("ui.storage.key.locale");
+        String workspaceKey = getTranslation("ui.storage.key.workspace");
+        // In low-footprint mode, contents from local storage go into the editors without a trip to the server
+        boolean filledInBrowser = lowFootprint && workspaceStore == null;
+
+        getElement().executeJs(LOAD_JS, jsonArray(List.of(htmlKey, jsonKey, jsKey, liveRenderKey, localeKey, workspaceKey)),
+                        filledInBrowser ? jsonArray(List.of(htmlKey, jsonKey)) : Json.createNull())
+                .then(JsonObject.class, stored -> {
+                    Workspace workspace = new Workspace(stringValue(stored, htmlKey), stringValue(stored, jsonKey));
+                    if (workspaceStore != null) {
+                        workspace = loadFromServer(stringValue(stored, workspaceKey), workspaceKey).orElse(workspace);
+                    }
 
-        getFromLocalStorageJs(getTranslation("ui.storage.key.json"), value -> {
-            if (value != null && !value.isEmpty()) {
-                jsonEditor.setValue(value);
-            }
-        });
+                    applyingWorkspace = true;
+                    try {
+                        String js = stringValue(stored, jsKey);
+                        if (js != null) {
+                            jsToggle.setValue(Boolean.parseBoolean(js));
+                        }
+                        String liveRender = stringValue(stored, liveRenderKey);
+                        // Default: live rendering enabled
+                        boolean liveRenderEnabled = liveRender == null || Boolean.parseBoolean(liveRender);
+                        liveRenderToggle.setValue(liveRenderEnabled);
+                        setLiveRender(liveRenderEnabled);
+                        restoreLocale(stringValue(stored, localeKey));
+                        if (!filledInBrowser) {
+                            fillEditors(workspace);
+                        }
+                    } finally {
+                        applyingWorkspace = false;
+                    }
 
-        getFromLocalStorageJs(getTranslation("ui.storage.key.js"), value -> {
-            if (value != null && !value.isEmpty()) {
-                jsToggle.setValue(Boolean.parseBoolean(value));
-            }
-        });
+                    if (!workspace.template().trim().isEmpty()) {
+                        updatePreview(workspace.template(), workspace.data());
+                    }
+                });
+    }
 
-        getFromLocalStorageJs(getTranslation("ui.storage.key.live-render"), value -> {
-            if (value != null && !value.isEmpty()) {
-                boolean liveRenderEnabled = Boolean.parseBoolean(value);
-                liveRenderToggle.setValue(liveRenderEnabled);
-                if (liveRenderEnabled) {
-                    attachEditorListeners();
-                    renderButton.setEnabled(false);
-                } else {
-                    detachEditorListeners();
-                    renderButton.setEnabled(true);
-                }
-            } else {
-                // Default: live rendering enabled
-                attachEditorListeners();
-            }
-        });
+    /**
+     * The server-side copy of this browser's workspace. A browser without an id gets a new one.
+     */
+    private Optional<Workspace> loadFromServer(String id, String workspaceKey) {
+        saveButton.setEnabled(true);
+        if (!WorkspaceStore.isValidId(id)) {
+            workspaceId = UUID.randomUUID().toString();
+            storeInBrowser(Map.of(workspaceKey, workspaceId), false);
+            return Optional.empty();
+        }
+        workspaceId = id;
+        try {
+            return workspaceStore.find(id);
+        } catch (IOException e) {
+            log.warn("Could not load workspace {}", id, e);
+            return Optional.empty();
+        }
     }
 
-    private void loadStoredLocale() {
-        getFromLocalStorageJs(getTranslation("ui.storage.key.locale"), value -> {
-            if (value != null && !value.isEmpty()) {
-                try {
-                    Locale storedLocale = Locale.forLanguageTag(value);
-                    if (storedLocale.equals(LOCALE_EN) || storedLocale.equals(LOCALE_SI)) {
-                        getUI().ifPresent(ui -> ui.setLocale(storedLocale));
-                        localeSelector.setValue(storedLocale);
-                    }
-                } catch (Exception e) {
-                    // Invalid locale tag, ignore and use default
-                }
-            }
-        });
+    private void restoreLocale(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        Locale storedLocale = Locale.forLanguageTag(value);
+        if (storedLocale.equals(LOCALE_EN) || storedLocale.equals(LOCALE_SI)) {
+            getUI().ifPresent(ui -> ui.setLocale(storedLocale));
+            localeSelector.setValue(storedLocale);
+        }
+    }
+
+    private void fillEditors(Workspace workspace) {
+        if (lowFootprint) {
+            getElement().executeJs("this.__vrEditors[0].value = $0; this.__vrEditors[1].value = $1",
+                    workspace.template(), workspace.data());
+        } else {
+            htmlEditor.setValue(workspace.template());
+            jsonEditor.setValue(workspace.data());
+        }
     }
 
-    private void saveToLocalStorageJs(String key, String value) {
-        UI.getCurrent()
-                .getPage()
-                .executeJs("localStorage.setItem($0, $1)", key, value);
+    private void setLiveRender(boolean enabled) {
+        if (enabled) {
+            attachEditorListeners();
+        } else {
+            detachEditorListeners();
+        }
+        renderButton.setEnabled(!enabled);
     }
 
-    private void removeFromLocalStorageJs(String key) {
-        UI.getCurrent()
-                .getPage()
-                .executeJs("localStorage.removeItem($0)", key);
+    /**
+     * Writes to the browser's local storage with one round trip; null values remove their entries.
+     * With {@code withEditors}, the editor contents are stored as well, read right there in the browser.
+     */
+    private PendingJavaScriptResult storeInBrowser(Map<String, String> entries, boolean withEditors) {
+        JsonObject values = Json.createObject();
+        entries.forEach((key, value) -> {
+            if (value == null) {
+                values.put(key, Json.createNull());
+            } else {
+                values.put(key, value);
+            }
+        });
+        return getElement().executeJs(STORE_JS, values, withEditors
+                ? jsonArray(List.of(getTranslation("ui.storage.key.html"), getTranslation("ui.storage.key.json")))
+                : Json.createNull());
     }
 
-    private void getFromLocalStorageJs(String key, ValueCallback callback) {
-        UI.getCurrent()
-                .getPage()
-                .executeJs("return localStorage.getItem($0)", key)
-                .then(String.class, callback::onValue);
+    private static JsonArray jsonArray(List<String> values) {
+        JsonArray array = Json.createArray();
+        for (String value : values) {
+            array.set(array.length(), value);
+        }
+        return array;
     }
 
-    @FunctionalInterface
-    private interface ValueCallback {
-        void onValue(String value);
+    private static String stringValue(JsonObject object, String key) {
+        return object.hasKey(key) && object.get(key).getType() == JsonType.STRING ? object.getString(key) : null;
     }
 
     private void attachEditorListeners() {
+        if (lowFootprint) {
+            if (htmlEditorRegistration == null) {
+                // One listener for both editors, sending both contents with the edit
+                htmlEditorRegistration = getElement().addEventListener("input", e -> {
+                            JsonObject data = e.getEventData();
+                            updatePreview(data.getString("element.__vrEditors[0].value"),
+                                    data.getString("element.__vrEditors[1].value"));
+                        })
+                        .setFilter("element.__vrEditors.some(editor => editor.contains(event.target))")
+                        .addEventData("element.__vrEditors[0].value")
+                        .addEventData("element.__vrEditors[1].value")
+                        .debounce(liveRenderDelay);
+            }
+            return;
+        }
         if (htmlEditorRegistration == null) {
             htmlEditorRegistration = htmlEditor.addValueChangeListener(e -> updatePreview());
         }
@@ -477,6 +711,39 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
         }
     }
 
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ui = attachEvent.getUI();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        ui = null;
+        renderScheduler.cancel();
+    }
+
+    /**
+     * Applies an update from a background thread under the session lock, unless the view has been
+     * detached by the time it would run.
+     */
+    private void accessAttached(Command update) {
+        UI attached = ui;
+        if (attached == null) {
+            return;
+        }
+        try {
+            attached.access(() -> {
+                if (ui == attached) {
+                    update.execute();
+                }
+            });
+        } catch (UIDetachedException e) {
+            // The session is gone, and nobody is left to see the update
+        }
+    }
+
     @Override
     public void localeChange(LocaleChangeEvent event) {
         htmlEditor.setLabel(getTranslation("ui.label.html.editor"));
@@ -503,13 +770,18 @@ public final class MainView extends VerticalLayout implements LocaleChangeObserv
             return locale.getDisplayName(locale);
         });
 
-        String htmlContent = htmlEditor.getValue();
-        String jsonContent = jsonEditor.getValue();
+        translatePreviewMessages();
 
-        if ((htmlContent == null || htmlContent.trim().isEmpty()) && (jsonContent == null || jsonContent.trim().isEmpty())) {
-            previewFrame.getElement().setAttribute("srcdoc", getTranslation("ui.message.preview.default-message"));
-        } else {
-            updatePreview();
+        if (applyingWorkspace) {
+            return;
         }
+        readEditors((htmlContent, jsonContent) -> {
+            if ((htmlContent == null || htmlContent.trim().isEmpty()) && (jsonContent == null || jsonContent.trim().isEmpty())) {
+                renderScheduler.cancel();
+                previewFrame.showDocument(getTranslation("ui.message.preview.default-message"));
+            } else {
+                updatePreview(htmlContent, jsonContent);
+            }
+        });
     }
 }
@@ -0,0 +1,283 @@
+package dev.iamkavindu.ui;
+
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.html.IFrame;
+import com.vaadin.flow.server.streams.DownloadEvent;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import dev.iamkavindu.service.RenderedOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.UUID;
+
+/**
+ * Sandboxed iframe showing the rendered document.
+ * <p>
+ * With differential updates enabled, only the changed region of the document is sent to the
+ * browser after the first render. A small client-side patcher rebuilds the new document from
+ * the previous one and morphs the live iframe DOM into it, so unchanged nodes (and the scroll
+ * position) survive. Whenever a patch cannot be applied, or would not be smaller than the
+ * document itself, the whole document is sent as {@code srcdoc} instead.
+ * <p>
+ * In low-footprint mode the document is not kept in the component tree at all: it goes to
+ * the shared {@link PreviewStore} and the frame loads it from there, so a session holds no
+ * more than the address of its latest document. The same goes for rendered documents larger
+ * than {@code srcdocMaxBytes} in the standard mode, which would otherwise travel in the UIDL
+ * response and stay in the element tree. Stored documents are streamed to the browser in
+ * chunks straight from the buffer they were rendered into, and those larger than a page of
+ * the store are shown one page at a time.
+ */
+class PreviewFrame extends IFrame {
+
+    private static final String SANDBOX = "allow-same-origin";
+    private static final String SANDBOX_WITH_SCRIPTS = "allow-same-origin allow-scripts";
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    /**
+     * Appended to each page of a paged document: where it is, then links to the previous and next page.
+     */
+    private static final String PAGE_NAVIGATION = """
+            <div style="position: sticky; bottom: 0; padding: 8px 12px; font: 13px Arial, sans-serif; \
+            background: #fff8e1; border-top: 1px solid #e0c060;">%s %s %s</div>\
+            """;
+
+    /**
+     * Marks the document just set through srcdoc as the base for the next patch.
+     */
+    private static final String TRACK_DOCUMENT_JS = """
+            this.__vrHtml = this.getAttribute('srcdoc');
+            this.__vrVersion = $0;
+            """;
+
+    /**
+     * $0 expected base version, $1 start, $2 delete count, $3 insert, $4 new version.
+     * Returns false when the patch could not be applied and a full update is needed.
+     */
+    private static final String PATCH_DOCUMENT_JS = """
+            const doc = this.contentDocument;
+            if (this.__vrVersion !== $0 || !doc || doc.readyState !== 'complete' || !doc.documentElement) {
+                return false;
+            }
+            const html = this.__vrHtml.slice(0, $1) + $3 + this.__vrHtml.slice($1 + $2);
+            const next = new DOMParser().parseFromString(html, 'text/html');
+            const syncAttributes = (from, to) => {
+                for (const attr of Array.from(from.attributes)) {
+                    if (!to.hasAttribute(attr.name)) from.removeAttribute(attr.name);
+                }
+                for (const attr of Array.from(to.attributes)) {
+                    if (from.getAttribute(attr.name) !== attr.value) from.setAttribute(attr.name, attr.value);
+                }
+            };
+            const morph = (current, target) => {
+                if (current.nodeType !== target.nodeType || current.nodeName !== target.nodeName) {
+                    current.replaceWith(doc.importNode(target, true));
+                    return;
+                }
+                if (current.nodeType !== Node.ELEMENT_NODE) {
+                    if (current.nodeValue !== target.nodeValue) current.nodeValue = target.nodeValue;
+                    return;
+                }
+                syncAttributes(current, target);
+                const currentChildren = Array.from(current.childNodes);
+                const targetChildren = Array.from(target.childNodes);
+                targetChildren.forEach((child, i) => {
+                    if (i < currentChildren.length) morph(currentChildren[i], child);
+                    else current.appendChild(doc.importNode(child, true));
+                });
+                currentChildren.slice(targetChildren.length).forEach(child => child.remove());
+            };
+            morph(doc.documentElement, next.documentElement);
+            this.__vrHtml = html;
+            this.__vrVersion = $4;
+            return true;
+            """;
+
+    private final boolean differentialUpdates;
+    private final transient PreviewStore previewStore;
+    private final boolean storeAll;
+    private final int srcdocMaxBytes;
+    private final String frameId = UUID.randomUUID().toString();
+    private String expiredMessage = "";
+    private PageLabels pageLabels = new PageLabels("{0} / {1}", "&lt;", "&gt;");
+
+    private String currentDocument;
+    private int version;
+    private boolean scriptsEnabled;
+
+    /**
+     * A frame that keeps documents of up to {@code srcdocMaxBytes} in {@code srcdoc} and loads larger ones from the store.
+     */
+    PreviewFrame(boolean differentialUpdates, PreviewStore previewStore, int srcdocMaxBytes) {
+        this(differentialUpdates, previewStore, false, srcdocMaxBytes);
+    }
+
+    /**
+     * A frame that loads all its documents from the store instead of keeping them in {@code srcdoc}.
+     */
+    PreviewFrame(PreviewStore previewStore) {
+        this(false, previewStore, true, 0);
+    }
+
+    private PreviewFrame(boolean differentialUpdates, PreviewStore previewStore, boolean storeAll, int srcdocMaxBytes) {
+        this.differentialUpdates = differentialUpdates;
+        this.previewStore = previewStore;
+        this.storeAll = storeAll;
+        this.srcdocMaxBytes = srcdocMaxBytes;
+        getElement().setAttribute("sandbox", SANDBOX);
+    }
+
+    /**
+     * Shown if the browser reloads a stored document that has been evicted meanwhile.
+     */
+    void setExpiredMessage(String html) {
+        expiredMessage = html;
+    }
+
+    /**
+     * Navigation of paged documents.
+     *
+     * @param label    message format pattern: {0} page number, {1} page count, {2} document size
+     * @param previous link text to the previous page
+     * @param next     link text to the next page
+     */
+    void setPageLabels(String label, String previous, String next) {
+        pageLabels = new PageLabels(label, previous, next);
+    }
+
+    /**
+     * Approximate heap this frame keeps for the current document: its text in srcdoc mode,
+     * nothing in low-footprint mode.
+     */
+    long retainedBytes() {
+        return currentDocument == null ? 0 : 2L * currentDocument.length();
+    }
+
+    /**
+     * Scripts only run for documents loaded through srcdoc, so toggling them forces a full update.
+     */
+    void setScriptsEnabled(boolean enabled) {
+        scriptsEnabled = enabled;
+        getElement().setAttribute("sandbox", enabled ? SANDBOX_WITH_SCRIPTS : SANDBOX);
+        currentDocument = null;
+    }
+
+    void showDocument(String html) {
+        if (storeAll) {
+            loadDocument(RenderedOutput.of(html));
+            return;
+        }
+        if (!differentialUpdates || scriptsEnabled || currentDocument == null) {
+            replaceDocument(html);
+            return;
+        }
+
+        TextSplice splice = TextSplice.between(currentDocument, html);
+        if (splice.isEmpty()) {
+            return;
+        }
+        if (splice.insert().length() >= html.length()) {
+            replaceDocument(html);
+            return;
+        }
+
+        int baseVersion = version;
+        version++;
+        currentDocument = html;
+        getElement().executeJs(PATCH_DOCUMENT_JS, baseVersion, splice.start(), splice.deleteCount(), splice.insert(), version)
+                .then(Boolean.class, applied -> {
+                    if (!Boolean.TRUE.equals(applied) && html.equals(currentDocument)) {
+                        replaceDocument(html);
+                    }
+                });
+    }
+
+    /**
+     * Shows a rendered document and takes it over: it is either stored as it is or decoded for
+     * {@code srcdoc} and closed.
+     */
+    void showDocument(RenderedOutput document) {
+        if (storeAll || document.length() > srcdocMaxBytes) {
+            loadDocument(document);
+            return;
+        }
+        String html;
+        try (document) {
+            html = document.toString();
+        }
+        showDocument(html);
+    }
+
+    private void replaceDocument(String html) {
+        version++;
+        currentDocument = html;
+        if (html.equals(getElement().getAttribute("srcdoc"))) {
+            // Patches never touch the attribute, so the browser may show something else by now
+            getElement().executeJs("this.setAttribute('srcdoc', this.getAttribute('srcdoc'))");
+        } else {
+            getElement().setAttribute("srcdoc", html);
+        }
+        if (differentialUpdates) {
+            getElement().executeJs(TRACK_DOCUMENT_JS, version);
+        }
+    }
+
+    private void loadDocument(RenderedOutput document) {
+        previewStore.put(frameId, document);
+        // srcdoc takes precedence over src, and the next srcdoc document cannot be a patch
+        getElement().removeAttribute("srcdoc");
+        currentDocument = null;
+        // A new handler means a new address, so the browser loads the document again
+        String expired = expiredMessage;
+        PageLabels labels = pageLabels;
+        setSrc((DownloadHandler) event -> writeDocument(event, expired, labels));
+    }
+
+    private void writeDocument(DownloadEvent event, String expired, PageLabels labels) throws IOException {
+        RenderedOutput stored = previewStore.open(frameId);
+        // Held until written out, so replacing or evicting the document meanwhile cannot recycle its buffer
+        try (RenderedOutput document = stored != null ? stored : RenderedOutput.of(expired)) {
+            PreviewPages pages = new PreviewPages(document, previewStore.pageBytes());
+            int page = page(event.getRequest().getParameter("page"), pages.count());
+            int start = pages.start(page);
+            int end = pages.end(page);
+            byte[] navigation = pages.count() > 1
+                    ? labels.navigation(page, pages.count(), document.length()).getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+
+            event.setContentType("text/html;charset=UTF-8");
+            event.setContentLength(end - start + navigation.length);
+            OutputStream out = event.getOutputStream();
+            for (int offset = start; offset < end; offset += CHUNK_BYTES) {
+                document.writeTo(out, offset, Math.min(CHUNK_BYTES, end - offset));
+                out.flush();
+            }
+            out.write(navigation);
+        }
+    }
+
+    private static int page(String parameter, int count) {
+        try {
+            return parameter != null ? Math.clamp(Integer.parseInt(parameter), 0, count - 1) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record PageLabels(String label, String previous, String next) {
+
+        String navigation(int page, int count, int length) {
+            String position = MessageFormat.format(label, page + 1, count, "%.1f MB".formatted(length / 1048576.0));
+            return PAGE_NAVIGATION.formatted(position,
+                    page > 0 ? "<a href=\"?page=%d\">%s</a>".formatted(page - 1, previous) : "",
+                    page < count - 1 ? "<a href=\"?page=%d\">%s</a>".formatted(page + 1, next) : "");
+        }
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+        previewStore.remove(frameId);
+    }
+}
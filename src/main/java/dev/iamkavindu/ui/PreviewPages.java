@@ -0,0 +1,53 @@
+package dev.iamkavindu.ui;
+
+import dev.iamkavindu.service.RenderedOutput;
+
+/**
+ * Split of a large preview document into pages of about {@code pageBytes}, so the browser never
+ * has to load and lay out all of it at once. A page ends just before a tag when one starts near
+ * the nominal boundary, and never inside a UTF-8 sequence; browsers show a page of HTML cut this
+ * way well enough for a preview.
+ */
+final class PreviewPages {
+
+    private static final int MAX_TAG_SEARCH_BYTES = 4096;
+
+    private final RenderedOutput document;
+    private final int pageBytes;
+    private final int tagSearchBytes;
+
+    PreviewPages(RenderedOutput document, int pageBytes) {
+        this.document = document;
+        this.pageBytes = Math.max(1, pageBytes);
+        // Keeps every page non-empty, however small the pages
+        this.tagSearchBytes = Math.min(MAX_TAG_SEARCH_BYTES, this.pageBytes / 4);
+    }
+
+    int count() {
+        return Math.max(1, (int) ((document.length() + (long) pageBytes - 1) / pageBytes));
+    }
+
+    int start(int page) {
+        return page == 0 ? 0 : boundary((long) page * pageBytes);
+    }
+
+    int end(int page) {
+        return page >= count() - 1 ? document.length() : boundary((long) (page + 1) * pageBytes);
+    }
+
+    private int boundary(long nominal) {
+        if (nominal >= document.length()) {
+            return document.length();
+        }
+        int position = (int) nominal;
+        for (int i = position; i > position - tagSearchBytes; i--) {
+            if (document.byteAt(i) == '<') {
+                return i;
+            }
+        }
+        while (position > 0 && (document.byteAt(position) & 0xC0) == 0x80) {
+            position--;
+        }
+        return position;
+    }
+}
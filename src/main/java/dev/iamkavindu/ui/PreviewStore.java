@@ -0,0 +1,64 @@
+package dev.iamkavindu.ui;
+
+import dev.iamkavindu.cache.WeightedLruCache;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.service.RenderedOutput;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Rendered preview documents held outside the component trees: all documents of low-footprint
+ * sessions, and documents too large for {@code srcdoc} in the others.
+ * Each preview frame owns one entry, replaced on every render, which the browser fetches
+ * when the frame loads. All sessions share one memory budget; the least recently viewed
+ * documents go first, and the frame shows a hint to render again if its document is gone.
+ * Documents longer than {@code page-bytes} are served one page at a time, see {@link PreviewPages}.
+ * Rendered documents are kept in the buffer they were rendered into, which goes back to the
+ * render pool once the document is replaced or evicted and no download is still reading it.
+ */
+@Component
+class PreviewStore {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final WeightedLruCache<String, RenderedOutput> documents;
+    private final int pageBytes;
+
+    PreviewStore(RenderMetrics renderMetrics,
+                 @Value("${velocity-renderer.preview.store.max-entries:4096}") int maxEntries,
+                 @Value("${velocity-renderer.preview.store.max-weight-bytes:67108864}") long maxWeightBytes,
+                 @Value("${velocity-renderer.preview.store.max-idle:30m}") Duration maxIdle,
+                 @Value("${velocity-renderer.preview.page-bytes:1048576}") int pageBytes) {
+        this.documents = new WeightedLruCache<>(maxEntries, maxWeightBytes, maxIdle, RenderedOutput::close);
+        this.pageBytes = pageBytes;
+        renderMetrics.monitorCache("preview", documents::stats);
+    }
+
+    /**
+     * Stores a document and takes it over: the store closes it once it is replaced or evicted.
+     *
+     * @return the stored size in bytes
+     */
+    long put(String frameId, RenderedOutput document) {
+        documents.put(frameId, document, document.retainedBytes() + ENTRY_OVERHEAD_BYTES);
+        return document.length();
+    }
+
+    /**
+     * @return the document, which the caller closes once it is written out, or null if it was evicted
+     */
+    RenderedOutput open(String frameId) {
+        RenderedOutput document = documents.get(frameId);
+        return document != null && document.retain() ? document : null;
+    }
+
+    int pageBytes() {
+        return pageBytes;
+    }
+
+    void remove(String frameId) {
+        documents.invalidate(frameId);
+    }
+}
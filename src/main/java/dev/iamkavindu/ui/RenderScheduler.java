@@ -0,0 +1,109 @@
+package dev.iamkavindu.ui;
+
+import com.vaadin.flow.server.Command;
+import dev.iamkavindu.service.RenderBudget;
+import dev.iamkavindu.service.RenderLimits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs the preview renders of one UI off the session lock, latest input wins.
+ * At most one render is in flight. Input submitted meanwhile replaces any input still
+ * waiting, so a burst of edits costs at most two renders, and the in-flight render is
+ * cancelled because nobody will look at its output. The outcome of a render is a UI
+ * update, which is handed to {@code deliver} (typically {@code UI.access}) and
+ * dropped there if newer input has arrived in the meantime.
+ */
+final class RenderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RenderScheduler.class);
+
+    /**
+     * A render of one snapshot of the editor contents. It runs on a background thread, so it
+     * must not touch components; it returns the update to apply to them instead.
+     */
+    @FunctionalInterface
+    interface Job {
+        Command render(RenderBudget budget);
+    }
+
+    private final RenderLimits limits;
+    private final Consumer<Command> deliver;
+
+    private long generation;
+    private Job pending;
+    private RenderBudget running;
+    private boolean draining;
+
+    RenderScheduler(RenderLimits limits, Consumer<Command> deliver) {
+        this.limits = limits;
+        this.deliver = deliver;
+    }
+
+    /**
+     * Schedules a render of the latest input, superseding everything submitted before.
+     */
+    synchronized void submit(Job job) {
+        generation++;
+        pending = job;
+        if (running != null) {
+            running.cancel();
+        }
+        if (!draining) {
+            draining = true;
+            Thread.ofVirtual().name("preview-render").start(this::drain);
+        }
+    }
+
+    /**
+     * Drops waiting input and cancels the render in flight, e.g. when the view is detached.
+     */
+    synchronized void cancel() {
+        generation++;
+        pending = null;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Job job;
+            long jobGeneration;
+            RenderBudget budget;
+            synchronized (this) {
+                if (pending == null) {
+                    running = null;
+                    draining = false;
+                    return;
+                }
+                job = pending;
+                pending = null;
+                jobGeneration = generation;
+                budget = RenderBudget.start(limits);
+                running = budget;
+            }
+
+            Command update;
+            try {
+                update = job.render(budget);
+            } catch (RuntimeException e) {
+                log.error("Preview render failed", e);
+                continue;
+            }
+            if (!budget.isCancelled()) {
+                deliver.accept(() -> {
+                    if (isCurrent(jobGeneration)) {
+                        update.execute();
+                    }
+                });
+            }
+        }
+    }
+
+    private synchronized boolean isCurrent(long jobGeneration) {
+        return jobGeneration == generation;
+    }
+}
@@ -0,0 +1,33 @@
+package dev.iamkavindu.ui;
+
+/**
+ * Single-region edit turning one text into another: replace {@code deleteCount} characters
+ * at {@code start} with {@code insert}. Computed from the common prefix and suffix, which
+ * captures the typical live-render change (one edited region) in linear time.
+ */
+record TextSplice(int start, int deleteCount, String insert) {
+
+    static TextSplice between(String previous, String next) {
+        int limit = Math.min(previous.length(), next.length());
+        int prefix = 0;
+        while (prefix < limit && previous.charAt(prefix) == next.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < limit - prefix
+                && previous.charAt(previous.length() - 1 - suffix) == next.charAt(next.length() - 1 - suffix)) {
+            suffix++;
+        }
+        return new TextSplice(prefix,
+                previous.length() - prefix - suffix,
+                next.substring(prefix, next.length() - suffix));
+    }
+
+    String applyTo(String previous) {
+        return previous.substring(0, start) + insert + previous.substring(start + deleteCount);
+    }
+
+    boolean isEmpty() {
+        return deleteCount == 0 && insert.isEmpty();
+    }
+}
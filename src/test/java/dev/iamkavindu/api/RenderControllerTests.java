@@ -0,0 +1,312 @@
+package dev.iamkavindu.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RenderControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void rendersTemplateWithData() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "Hello $name#foreach($i in $items) $i#end", "data": {"name": "API", "items": [1, 2]}}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello API 1 2"));
+
+        assertTrue(meterRegistry.get("velocity.render.total").tag("channel", "api").timer().count() > 0);
+        assertTrue(meterRegistry.get("velocity.render.output.size").tag("channel", "api").summary().totalAmount() > 0);
+    }
+
+    @Test
+    void reusesParsedDataAcrossTemplates() throws Exception {
+        String data = "{\"name\": \"shared\", \"items\": [1, 2, 3]}";
+        double hits = meterRegistry.get("cache.gets").tags("cache", "json", "result", "hit").functionCounter().count();
+        for (String template : new String[]{"A $name", "B ${items.size()}", "C $name"}) {
+            mockMvc.perform(post("/api/render")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"template\": \"" + template + "\", \"data\": " + data + "}"))
+                    .andExpect(status().isOk());
+        }
+
+        assertEquals(hits + 2,
+                meterRegistry.get("cache.gets").tags("cache", "json", "result", "hit").functionCounter().count());
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"template\": \"Hi\", \"data\": [1]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void reportsTemplateErrorsAsUnprocessable() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "#if(", "data": {}}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.title").value("Template render failed"));
+    }
+
+    @Test
+    void reportsRunawayTemplatesAsUnprocessable() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "#foreach($i in [1..100000000])#foreach($j in [1..100000000])#end#end"}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.title").value("Render limit exceeded"));
+    }
+
+    @Test
+    void cannotReadFilesFromTheWorkingDirectory() throws Exception {
+        for (String directive : new String[]{"#include('pom.xml')", "#parse('pom.xml')",
+                "#include('src/main/resources/application.properties')"}) {
+            mockMvc.perform(post("/api/render")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"template\": \"" + directive + "\"}"))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(content().string(not(containsString("<project"))));
+        }
+    }
+
+    @Test
+    void revalidatesRepeatedRenderByEtag() throws Exception {
+        String body = """
+                {"template": "Hi $name, ${items.size()} items", "data": {"name": "etag", "items": [1, 2, 3]}}
+                """;
+        String etag = mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hi etag, 3 items"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        double lookups = jsonCacheLookups();
+
+        mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string("Hi etag, 3 items"));
+        mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // Served from the output cache and by ETag without binding the data
+        assertEquals(lookups, jsonCacheLookups());
+        mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("etag", "other"))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void servesOutputInTheRequestedFormatAfterPostProcessing() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "<ul>\\n  #foreach($i in $items)\\n    <li>$i</li>\\n  #end\\n</ul>",
+                                 "data": {"items": ["<a>", "b&c"]}, "format": "html", "escape": "html", "stages": ["minify-html"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith(MediaType.TEXT_HTML_VALUE)))
+                .andExpect(content().string("<ul>\n<li>&lt;a&gt;</li>\n<li>b&amp;c</li>\n</ul>"));
+
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "{\\"items\\": [#foreach($i in $items)$i #end]}", "data": {"items": [1, 2]},
+                                 "format": "json", "stages": ["validate-json"]}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.title").value("Invalid render output"));
+
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "Hi", "stages": ["uglify"]}
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void servesCachedOutputPrecompressed() throws Exception {
+        String body = """
+                {"template": "#foreach($i in [1..200])<p>$name</p>#end", "data": {"name": "gzip"}, "format": "html"}
+                """;
+        String expected = "<p>gzip</p>".repeat(200);
+        mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(expected));
+
+        byte[] compressed = mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(expected, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        mockMvc.perform(post("/api/render").contentType(MediaType.APPLICATION_JSON).content(body)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    void leavesNoCacheTemplatesUncached() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "#nocache\\nNow: $name", "data": {"name": "volatile"}}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_LENGTH))
+                .andExpect(content().string("Now: volatile"));
+
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "#nocache\\n{\\"a\\": $a", "data": {"a": 1}, "stages": ["validate-json"]}
+                                """))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.title").value("Invalid render output"));
+    }
+
+    @Test
+    void reportsUndefinedReferencesAndMacros() throws Exception {
+        mockMvc.perform(post("/api/render/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "$user.name $user.email\\n$!maybe #row($user)", "data": {"user": {"name": "A"}}}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valid").value(false))
+                .andExpect(jsonPath("$.undefinedReferences[0].reference").value("$user.email"))
+                .andExpect(jsonPath("$.undefinedReferences[0].line").value(1))
+                .andExpect(jsonPath("$.undefinedReferences[0].column").value(12))
+                .andExpect(jsonPath("$.undefinedReferences.length()").value(1))
+                .andExpect(jsonPath("$.undefinedMacros[0]").value("row"));
+    }
+
+    @Test
+    void rejectsMissingTemplate() throws Exception {
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"data\": {}}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/render")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"template\": \"Hi\", \"data\": {"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rendersJsonBatchInOrderAndReportsFailedRecords() throws Exception {
+        mockMvc.perform(post("/api/render/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "Hi $name", "records": [{"name": "a"}, 42, {"name": "c"}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        {"index":0,"output":"Hi a"}
+                        {"index":1,"error":"Record must be a JSON object"}
+                        {"index":2,"output":"Hi c"}
+                        """));
+    }
+
+    @Test
+    void reportsMalformedJsonBatchRecordsInline() throws Exception {
+        mockMvc.perform(post("/api/render/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "Hi $name", "records": [{"name": "a"}, {"name": }, {"name": "c"}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        startsWith("{\"index\":0,\"output\":\"Hi a\"}\n{\"index\":1,\"error\":\"Invalid JSON format"),
+                        not(containsString("\"index\":2")))));
+
+        mockMvc.perform(post("/api/render/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "Hi $name", "records": [{"name": "a"},
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        startsWith("{\"index\":0,\"output\":\"Hi a\"}\n{\"index\":1,\"error\":\"Invalid JSON format"),
+                        not(containsString("\"index\":2")))));
+    }
+
+    @Test
+    void rendersNdjsonBatch() throws Exception {
+        mockMvc.perform(post("/api/render/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"template": "#foreach($i in $items)$i#end"}
+                                {"items": [1, 2]}
+
+                                {"items": [3]}
+                                not json
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        startsWith("{\"index\":0,\"output\":\"12\"}\n{\"index\":1,\"output\":\"3\"}\n"),
+                        containsString("{\"index\":2,\"error\":\"Invalid JSON format"))));
+    }
+
+    @Test
+    void reportsBatchTemplateErrorsBeforeStreaming() throws Exception {
+        mockMvc.perform(post("/api/render/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"template": "#if(", "records": [{}]}
+                                """))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    private double jsonCacheLookups() {
+        return meterRegistry.get("cache.gets").tag("cache", "json").functionCounters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+}
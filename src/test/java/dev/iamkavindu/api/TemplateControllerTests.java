@@ -0,0 +1,100 @@
+package dev.iamkavindu.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TemplateControllerTests {
+
+    @TempDir
+    static Path templates;
+
+    @DynamicPropertySource
+    static void repository(DynamicPropertyRegistry registry) {
+        registry.add("velocity-renderer.repository.location", () -> templates.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rendersStoredTemplatesByIdAndVersion() throws Exception {
+        saveTemplate("greeting", "Hello $name")
+                .andExpect(status().isCreated());
+        saveTemplate("greeting", "Welcome $name")
+                .andExpect(jsonPath("$.version").value(2));
+
+        render("{\"templateId\": \"greeting\", \"data\": {\"name\": \"Ann\"}}")
+                .andExpect(status().isOk())
+                .andExpect(content().string("Welcome Ann"));
+        render("{\"templateId\": \"greeting@1\", \"data\": {\"name\": \"Ann\"}}")
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello Ann"));
+        mockMvc.perform(get("/api/templates/greeting").param("version", "1"))
+                .andExpect(content().string("Hello $name"));
+        mockMvc.perform(get("/api/templates"))
+                .andExpect(jsonPath("$[?(@.name == 'greeting')].version").value(2));
+    }
+
+    @Test
+    void dropsCachedOutputWhenAnIncludedTemplateChanges() throws Exception {
+        saveTemplate("banner", "Hello");
+        String request = "{\"template\": \"#parse('banner') $name\", \"data\": {\"name\": \"Ann\"}}";
+        render(request).andExpect(content().string("Hello Ann"));
+
+        saveTemplate("banner", "Welcome");
+
+        render(request).andExpect(content().string("Welcome Ann"));
+    }
+
+    @Test
+    void rejectsTemplatesThatDoNotParse() throws Exception {
+        saveTemplate("broken", "#if(")
+                .andExpect(status().isUnprocessableEntity());
+        render("{\"templateId\": \"broken\"}")
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void reportsUnknownTemplatesAsNotFound() throws Exception {
+        render("{\"templateId\": \"missing@4\"}")
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Template not found"));
+    }
+
+    @Test
+    void rejectsTemplateTogetherWithTemplateId() throws Exception {
+        render("{\"template\": \"x\", \"templateId\": \"greeting\"}")
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions saveTemplate(String name, String source) throws Exception {
+        return mockMvc.perform(put("/api/templates/{name}", name)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(source));
+    }
+
+    private ResultActions render(String body) throws Exception {
+        return mockMvc.perform(post("/api/render")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
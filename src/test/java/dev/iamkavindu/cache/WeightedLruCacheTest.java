@@ -0,0 +1,125 @@
+package dev.iamkavindu.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedWhenEntryLimitIsReached() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(2, 1_000);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+        cache.get("a");
+        cache.put("c", "C", 1);
+
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void evictsUntilWeightFitsBudget() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100);
+        cache.put("a", "A", 40);
+        cache.put("b", "B", 40);
+        cache.put("c", "C", 40);
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.size());
+        assertEquals(80, stats.weightBytes());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void skipsValuesHeavierThanTheWholeBudget() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100);
+        cache.put("big", "B", 101);
+
+        assertNull(cache.get("big"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100);
+        cache.put("a", "A", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void dropsEntriesIdleForTooLong() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100, Duration.ofNanos(10), Duration.ZERO, now::get);
+        cache.put("a", "A", 1);
+        cache.put("b", "B", 1);
+        now.set(8);
+        cache.get("a");
+        now.set(15);
+
+        assertEquals(1, cache.stats().size());
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void dropsEntriesOlderThanMaxAgeEvenIfRead() {
+        AtomicLong now = new AtomicLong();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100, Duration.ZERO, Duration.ofNanos(10), now::get);
+        cache.put("a", "A", 1);
+        now.set(5);
+        cache.put("b", "B", 1);
+        now.set(9);
+        assertEquals("A", cache.get("a"));
+        now.set(12);
+
+        assertNull(cache.get("a"));
+        assertEquals("B", cache.get("b"));
+        now.set(20);
+        assertEquals(0, cache.stats().size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void invalidatesEntriesMatchingTheirValue() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, 100);
+        cache.put("a", "stale", 3);
+        cache.put("b", "fresh", 4);
+
+        cache.invalidateIf("stale"::equals);
+
+        assertNull(cache.get("a"));
+        assertEquals("fresh", cache.get("b"));
+        assertEquals(4, cache.stats().weightBytes());
+    }
+
+    @Test
+    void reportsEveryValueItLetsGoOf() {
+        List<String> removed = new ArrayList<>();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(2, 100, Duration.ZERO, removed::add);
+        cache.put("a", "A", 1);
+        cache.put("a", "A2", 1);
+        cache.put("b", "B", 1);
+        cache.put("c", "C", 1);
+        cache.put("big", "BIG", 101);
+        cache.invalidate("b");
+        cache.clear();
+
+        assertEquals(List.of("A", "A2", "BIG", "B", "C"), removed);
+    }
+}
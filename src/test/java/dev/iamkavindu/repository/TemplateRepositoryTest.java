@@ -0,0 +1,63 @@
+package dev.iamkavindu.repository;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private TemplateRepository repository(String type) {
+        return switch (type) {
+            case "filesystem" -> new FileSystemTemplateRepository(directory.resolve("templates"));
+            case "embedded" -> new EmbeddedTemplateRepository(directory.resolve("templates.zip"));
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"filesystem", "embedded"})
+    void savesNewVersionsAndKeepsOldOnes(String type) throws Exception {
+        TemplateRepository repository = repository(type);
+
+        assertTrue(repository.findAllLatest().isEmpty());
+        assertEquals(1, repository.save("invoice", "v1 $total").version());
+        assertEquals(2, repository.save("invoice", "v2 $total").version());
+        repository.save("letter", "Dear $name");
+
+        assertEquals("v2 $total", repository.find(TemplateId.parse("invoice")).orElseThrow().source());
+        assertEquals("v1 $total", repository.find(TemplateId.parse("invoice@1")).orElseThrow().source());
+        assertTrue(repository.find(TemplateId.parse("invoice@3")).isEmpty());
+        assertEquals(OptionalInt.of(2), repository.latestVersion("invoice"));
+        assertTrue(repository.lastModified(TemplateId.parse("invoice@1")) > 0);
+        assertEquals(0, repository.lastModified(TemplateId.parse("missing")));
+        assertEquals(List.of("invoice@2", "letter@1"), repository.findAllLatest().stream()
+                .map(template -> template.id().toString())
+                .sorted()
+                .toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"filesystem", "embedded"})
+    void survivesReopening(String type) throws Exception {
+        repository(type).save("invoice", "Total: $total");
+
+        assertEquals("Total: $total", repository(type).find(TemplateId.parse("invoice@1")).orElseThrow().source());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"../escape", "a/b", "", ".hidden"})
+    void rejectsNamesOutsideTheRepository(String name) {
+        assertThrows(IllegalArgumentException.class, () -> repository("filesystem").save(name, "x"));
+    }
+}
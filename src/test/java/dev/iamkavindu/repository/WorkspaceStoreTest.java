@@ -0,0 +1,116 @@
+package dev.iamkavindu.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkspaceStoreTest {
+
+    private static final String ID = "0b6f3c52-8f4e-4c1a-9d2b-5e7f1a2b3c4d";
+    private static final String OTHER_ID = "7d1e2f30-4a5b-4c6d-8e9f-0a1b2c3d4e5f";
+
+    @TempDir
+    Path directory;
+
+    private final SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.close();
+    }
+
+    /**
+     * Scheduled flushes and compactions are far off; tests trigger them.
+     */
+    private WorkspaceStore open() throws Exception {
+        return new WorkspaceStore(directory, 1 << 20, scheduler, Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    private long logSize() throws Exception {
+        return Files.size(directory.resolve("workspaces.log"));
+    }
+
+    @Test
+    void coalescesSavesAndSurvivesReopening() throws Exception {
+        WorkspaceStore store = open();
+        store.save(ID, new Workspace("v1 $name", "{}"));
+        store.save(ID, new Workspace("v2 $name", "{\"name\": \"a\"}"));
+        store.save(OTHER_ID, new Workspace("other", ""));
+        store.delete(OTHER_ID);
+
+        assertEquals(Optional.of(new Workspace("v2 $name", "{\"name\": \"a\"}")), store.find(ID));
+        assertFalse(Files.exists(directory.resolve("workspaces.log")));
+        store.flush();
+        assertEquals(2, Files.readAllLines(directory.resolve("workspaces.log")).size());
+        store.close();
+
+        WorkspaceStore reopened = open();
+        assertEquals("v2 $name", reopened.find(ID).orElseThrow().template());
+        assertTrue(reopened.find(OTHER_ID).isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    void compactsToTheLatestRecords() throws Exception {
+        WorkspaceStore store = open();
+        String big = "x".repeat(300_000);
+        for (int i = 0; i < 5; i++) {
+            store.save(ID, new Workspace(big + i, ""));
+            store.flush();
+        }
+        store.save(OTHER_ID, new Workspace("small", ""));
+        store.flush();
+        long before = logSize();
+
+        store.compact();
+
+        assertTrue(logSize() < before / 4);
+        assertEquals(big + 4, store.find(ID).orElseThrow().template());
+        store.save(OTHER_ID, new Workspace("after", ""));
+        store.close();
+
+        WorkspaceStore reopened = open();
+        assertEquals(big + 4, reopened.find(ID).orElseThrow().template());
+        assertEquals("after", reopened.find(OTHER_ID).orElseThrow().template());
+        reopened.close();
+    }
+
+    @Test
+    void dropsATornLastRecord() throws Exception {
+        WorkspaceStore store = open();
+        store.save(ID, new Workspace("kept", ""));
+        store.close();
+        long valid = logSize();
+        Files.write(directory.resolve("workspaces.log"), "{\"id\": \"torn".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        WorkspaceStore reopened = open();
+        assertEquals(valid, logSize());
+        assertEquals("kept", reopened.find(ID).orElseThrow().template());
+        reopened.save(OTHER_ID, new Workspace("next", ""));
+        reopened.close();
+
+        assertEquals(2, Files.readAllLines(directory.resolve("workspaces.log")).size());
+    }
+
+    @Test
+    void rejectsInvalidIdsAndOversizedWorkspaces() throws Exception {
+        WorkspaceStore store = open();
+        assertThrows(IllegalArgumentException.class, () -> store.save("../escape", new Workspace("", "")));
+        assertThrows(IllegalArgumentException.class, () -> store.save(ID, new Workspace("x".repeat(1 << 20), "{}")));
+        store.close();
+    }
+}
@@ -0,0 +1,152 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.velocity.VelocityContext;
+import org.apache.velocity.app.VelocityEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Closeable;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonParserServiceTest {
+
+    private static final String JSON = """
+            {
+              "company": "Acme",
+              "user": {"firstName": "Jane", "age": 41, "admin": true, "manager": null},
+              "orders": [
+                {"id": 1, "price": 29.99, "tags": ["a", "b"]},
+                {"id": 2, "price": 49.99, "tags": []},
+                [3, "nested"],
+                12345678901
+              ]
+            }
+            """;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final RenderMetrics metrics = new RenderMetrics(registry);
+    private final JsonParserService eager = new JsonParserService(metrics, Integer.MAX_VALUE, Integer.MAX_VALUE, 16, 1 << 20, Duration.ZERO);
+    private final JsonParserService lazy = new JsonParserService(metrics, 0, Integer.MAX_VALUE, 16, 1 << 20, Duration.ZERO);
+
+    @TempDir
+    Path templates;
+
+    @Test
+    void lazyBindingMatchesEagerBinding() {
+        Map<String, Object> expected = eager.parseJsonToContext(JSON, RenderChannel.UI);
+        Map<String, Object> actual = lazy.parseJsonToContext(JSON, RenderChannel.UI);
+
+        assertInstanceOf(LazyJsonObject.class, actual);
+        assertEquals(expected, actual);
+        assertEquals(4, ((List<?>) actual.get("orders")).size());
+        assertEquals(12345678901L, ((List<?>) actual.get("orders")).get(3));
+    }
+
+    @Test
+    void lazyArraysReadElementsByIndex() throws Exception {
+        List<?> expected = (List<?>) eager.parseJsonToContext(JSON, RenderChannel.UI).get("orders");
+        List<?> orders = (List<?>) lazy.parseJsonToContext(JSON, RenderChannel.UI).get("orders");
+
+        assertFalse(orders.isEmpty());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), orders.get(i));
+        }
+        assertEquals("nested", ((List<?>) orders.get(2)).get(1));
+        assertTrue(((List<?>) ((Map<?, ?>) orders.get(1)).get("tags")).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> orders.get(4));
+
+        Iterator<?> elements = orders.iterator();
+        elements.next();
+        assertInstanceOf(Closeable.class, elements).close();
+    }
+
+    @Test
+    void lazyBindingRendersLikeEagerBinding() throws Exception {
+        VelocityTemplateService service = new RenderFixture(templates).metrics(metrics).service();
+        String template = """
+                $company: $user.firstName ($user.age) #if($user.admin)admin#end $!user.manager
+                #foreach($order in $orders)#if($order.id)$order.id=$order.price [#foreach($t in $order.tags)$t#end]#else$order#end;#end
+                $orders.size() $orders.get(0).tags.get(1)
+                """;
+
+        assertEquals(service.render(template, eager.parseJsonToContext(JSON, RenderChannel.UI), RenderChannel.UI),
+                service.render(template, lazy.parseJsonToContext(JSON, RenderChannel.UI), RenderChannel.UI));
+    }
+
+    @Test
+    void jsonFastPathResolvesLikeDefaultUberspector() throws Exception {
+        VelocityTemplateService service = new RenderFixture(templates).metrics(metrics).service();
+        VelocityEngine plain = new VelocityEngine();
+        plain.init();
+        String template = """
+                $user.firstName $user.missing $user.class.simpleName $user.size() $user.empty
+                #foreach($order in $orders)$order.class.simpleName:#if($order.id)$order.id#end;#end
+                """;
+
+        for (JsonParserService parser : List.of(eager, lazy)) {
+            Map<String, Object> data = parser.parseJsonToContext(JSON, RenderChannel.UI);
+            StringWriter expected = new StringWriter();
+            plain.evaluate(new VelocityContext(new HashMap<>(data)), expected, "plain", template);
+
+            assertEquals(expected.toString(), service.render(template, data, RenderChannel.UI));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reusesReadOnlyContextForUnchangedJson() {
+        Map<String, Object> first = eager.parseJsonToContext(JSON, RenderChannel.UI);
+        Map<String, Object> second = eager.parseJsonToContext(new String(JSON), RenderChannel.API);
+
+        assertSame(first, second);
+        assertNotSame(first, eager.parseJsonToContext(JSON, RenderChannel.BATCH));
+        assertThrows(UnsupportedOperationException.class, () -> first.put("company", "Other"));
+        assertThrows(UnsupportedOperationException.class,
+                () -> ((Map<String, Object>) first.get("user")).remove("age"));
+        assertThrows(UnsupportedOperationException.class, () -> ((List<Object>) first.get("orders")).add(1));
+        assertEquals(1, registry.get("cache.gets").tags("cache", "json", "result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void projectionKeepsOnlyWhatTheTemplateReads() {
+        JsonParserService projecting = new JsonParserService(metrics, Integer.MAX_VALUE, 0, 16, 1 << 20, Duration.ZERO);
+        JsonProjection projection = JsonProjection.of(Set.of("user.firstName", "orders[].id"), Set.of("orders[]"));
+
+        Map<String, Object> projected = projecting.parseJsonToContext(JSON, projection, RenderChannel.UI);
+
+        assertEquals(Map.of("firstName", "Jane"), projected.get("user"));
+        assertEquals(List.of(Map.of("id", 1), Map.of("id", 2), List.of(3, "nested"), 12345678901L), projected.get("orders"));
+        assertFalse(projected.containsKey("company"));
+        assertEquals(eager.parseJsonToContext(JSON, RenderChannel.UI),
+                projecting.parseJsonToContext(JSON, JsonProjection.ALL, RenderChannel.UI));
+        assertThrows(IllegalArgumentException.class,
+                () -> projecting.parseJsonToContext("{\"company\": [1, }", projection, RenderChannel.API));
+    }
+
+    @Test
+    void lazyBindingStillRejectsInvalidJson() {
+        assertThrows(IllegalArgumentException.class, () -> lazy.parseJsonToContext("{\"a\": [1, 2}", RenderChannel.API));
+        assertThrows(IllegalArgumentException.class, () -> lazy.parseJsonToContext("[1, 2]", RenderChannel.API));
+        assertThrows(IllegalArgumentException.class, () -> lazy.parseJsonToContext("{} {}", RenderChannel.API));
+    }
+}
@@ -0,0 +1,145 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.InvalidOutputException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutputPipelineTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path templates;
+
+    @Test
+    void minifiesHtmlWithoutTouchingPreformattedContent() throws IOException {
+        String html = """
+                <!DOCTYPE html>
+                <html>
+                  <!-- navigation -->
+                  <body   class="a   b" >
+                    <p>Hello,
+                       world</p>   <!--[if IE]>  old  <![endif]-->
+                    <pre>  keep
+                      this  </pre>
+                    <script>if (a  <  b) {}</script>
+                    <br/>  1 < 2
+                  </body>
+                </html>
+                """;
+
+        assertEquals("""
+                <!DOCTYPE html>
+                <html>
+                <body class="a   b">
+                <p>Hello,
+                world</p> <!--[if IE]>  old  <![endif]-->
+                <pre>  keep
+                      this  </pre>
+                <script>if (a  <  b) {}</script>
+                <br/> 1 < 2
+                </body>
+                </html>
+                """, process(OutputStage.MINIFY_HTML, html));
+    }
+
+    @Test
+    void collapsesBlankLinesAndIndentation() throws IOException {
+        String text = "\n\n  Name:   Jane \t\n\n\n\n    Total:  3\n\n";
+
+        assertEquals("Name: Jane\n\nTotal: 3\n", process(OutputStage.COLLAPSE_WHITESPACE, text));
+    }
+
+    @Test
+    void checksJsonAcrossChunks() throws IOException {
+        assertEquals("{\"name\": \"Jäne 😀\", \"items\": [1, 2.5, true, null]}",
+                process(OutputStage.VALIDATE_JSON, "{\"name\": \"Jäne 😀\", \"items\": [1, 2.5, true, null]}"));
+
+        assertTrue(assertThrows(StageWriter.Rejected.class, () -> process(OutputStage.VALIDATE_JSON, "{\"a\": [1, 2}"))
+                .reason().getMessage().startsWith("Output is not valid JSON at line 1"));
+        assertThrows(StageWriter.Rejected.class, () -> process(OutputStage.VALIDATE_JSON, "{\"a\": 1"));
+        assertThrows(StageWriter.Rejected.class, () -> process(OutputStage.VALIDATE_JSON, "{} {}"));
+        assertThrows(StageWriter.Rejected.class, () -> process(OutputStage.VALIDATE_JSON, "  "));
+    }
+
+    @Test
+    void escapesInsertedValuesForTheFormat() throws Exception {
+        VelocityTemplateService service = service();
+        Map<String, Object> data = Map.of("name", "<Tom & \"Jerry\">", "count", 3);
+
+        assertEquals("<b>&lt;Tom &amp; &quot;Jerry&quot;&gt;</b> 3",
+                merge(service, "<b>$name</b> $count$!missing", data, OutputPipeline.of("html", "html", null)));
+        assertEquals("{\"name\": \"<Tom & \\\"Jerry\\\">\", \"count\": 3}",
+                merge(service, "{\"name\": \"$name\", \"count\": $count}", data,
+                        OutputPipeline.of("json", "json", List.of("validate-json"))));
+        assertEquals("\"<Tom & \"\"Jerry\"\">\",3",
+                merge(service, "$name,$count", data, OutputPipeline.of("csv", "csv", null)));
+    }
+
+    @Test
+    void failsRendersWhoseOutputIsRejected() throws Exception {
+        VelocityTemplateService service = service();
+        OutputPipeline json = OutputPipeline.of("json", null, List.of("validate-json"));
+
+        assertThrows(InvalidOutputException.class,
+                () -> merge(service, "{\"items\": [#foreach($i in [1..3])$i #end]}", Map.of(), json));
+        assertEquals(1, registry.get("velocity.render.failures").tags("channel", "api", "type", "output")
+                .counter().count());
+        assertDoesNotThrow(() -> merge(service, "{\"items\": [#foreach($i in [1..3])$i#if($foreach.hasNext), #end#end]}",
+                Map.of(), json));
+    }
+
+    @Test
+    void rejectsUnknownNames() {
+        assertThrows(IllegalArgumentException.class, () -> OutputPipeline.of("pdf", null, null));
+        assertThrows(IllegalArgumentException.class, () -> OutputPipeline.of(null, "sql", null));
+        assertThrows(IllegalArgumentException.class, () -> OutputPipeline.of(null, null, List.of("uglify")));
+    }
+
+    /**
+     * Writes the input one character at a time, the worst case for stages that look ahead,
+     * and checks that writing it in one piece gives the same output.
+     */
+    private static String process(OutputStage stage, String input) throws IOException {
+        StringWriter whole = new StringWriter();
+        StageWriter writer = stage.wrap(whole);
+        writer.write(input);
+        writer.finish();
+
+        StringWriter chunked = new StringWriter();
+        writer = stage.wrap(chunked);
+        for (int i = 0; i < input.length(); i++) {
+            writer.write(input.charAt(i));
+        }
+        writer.finish();
+        assertEquals(whole.toString(), chunked.toString());
+        return whole.toString();
+    }
+
+    private static String merge(VelocityTemplateService service, String template, Map<String, Object> data,
+                                OutputPipeline pipeline) throws Exception {
+        try (RenderedOutput output = service.mergeUtf8(service.compile(template, RenderChannel.API), data,
+                RenderChannel.API, RenderBudget.start(service.renderLimits()), pipeline)) {
+            return output.toString();
+        }
+    }
+
+    private VelocityTemplateService service() {
+        return new RenderFixture(templates).metrics(new RenderMetrics(registry)).service();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.config.AppConfig;
+import dev.iamkavindu.config.VelocityEngineProperties;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.repository.TemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.velocity.app.VelocityEngine;
+
+import java.nio.file.Path;
+
+/**
+ * The template service wired the way {@link AppConfig} wires it, over a filesystem template
+ * repository in a directory of the test's own. By default it uses the shipped engine profile,
+ * no render limits and a worker pool that never makes a render wait; tests change what they
+ * exercise before asking for the {@link #service()}.
+ */
+final class RenderFixture {
+
+    private final AppConfig config = new AppConfig();
+    private final TemplateRepository repository;
+    private RenderMetrics metrics = new RenderMetrics(new SimpleMeterRegistry());
+    private VelocityEngineProperties.Profile profile = VelocityEngineProperties.Profile.THROUGHPUT;
+    private RenderLimits limits = RenderLimits.UNLIMITED;
+    private GlobalContext globalContext = config.globalContext();
+    private RenderWorkerPool workerPool;
+    private MacroLibrary macroLibrary;
+
+    RenderFixture(Path templates) {
+        this.repository = config.templateRepository("filesystem", templates);
+    }
+
+    RenderFixture metrics(RenderMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    RenderFixture profile(VelocityEngineProperties.Profile profile) {
+        this.profile = profile;
+        return this;
+    }
+
+    RenderFixture limits(RenderLimits limits) {
+        this.limits = limits;
+        return this;
+    }
+
+    RenderFixture globalContext(GlobalContext globalContext) {
+        this.globalContext = globalContext;
+        return this;
+    }
+
+    RenderFixture workerPool(RenderWorkerPool workerPool) {
+        this.workerPool = workerPool;
+        return this;
+    }
+
+    /**
+     * A new service with its own engine and macro library, reading stored templates from the repository.
+     */
+    VelocityTemplateService service() {
+        InlineTemplateLoader loader = config.inlineTemplateLoader();
+        VelocityEngine engine = config.velocityEngine(VelocityEngineProperties.of(profile), loader,
+                config.repositoryTemplateLoader(repository, 0), limits);
+        macroLibrary = config.macroLibrary(engine, "macros");
+        return new VelocityTemplateService(engine, globalContext, loader, macroLibrary, metrics, limits,
+                workerPool != null ? workerPool : RenderWorkerPool.unbounded(metrics), 16, 1 << 20);
+    }
+
+    TemplateRepository repository() {
+        return repository;
+    }
+
+    /**
+     * The macro library of the service built last.
+     */
+    MacroLibrary macroLibrary() {
+        return macroLibrary;
+    }
+}
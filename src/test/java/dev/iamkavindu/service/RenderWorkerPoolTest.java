@@ -0,0 +1,150 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.RenderRejectedException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderWorkerPoolTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final RenderMetrics metrics = new RenderMetrics(registry);
+
+    @TempDir
+    Path templates;
+
+    @Test
+    void handsFreedWorkerToTheMostUrgentChannel() throws Exception {
+        RenderWorkerPool pool = new RenderWorkerPool(metrics, 1, 4, 4, Duration.ZERO);
+        List<RenderChannel> served = new CopyOnWriteArrayList<>();
+        pool.acquire(RenderChannel.API);
+
+        Thread batch = waitFor(pool, RenderChannel.BATCH, served);
+        awaitQueued(RenderChannel.BATCH);
+        Thread ui = waitFor(pool, RenderChannel.UI, served);
+        awaitQueued(RenderChannel.UI);
+        pool.release();
+
+        batch.join(5_000);
+        ui.join(5_000);
+        assertEquals(List.of(RenderChannel.UI, RenderChannel.BATCH), served);
+        assertEquals(0, registry.get("velocity.render.workers.active").gauge().value());
+    }
+
+    @Test
+    void rejectsWhenTheQueueIsFull() throws Exception {
+        RenderWorkerPool pool = new RenderWorkerPool(metrics, 1, 0, 0, Duration.ZERO);
+        pool.acquire(RenderChannel.UI);
+
+        assertThrows(RenderRejectedException.class, () -> pool.acquire(RenderChannel.API));
+        assertEquals(1, registry.get("velocity.render.failures").tags("channel", "api", "type", "busy")
+                .counter().count());
+    }
+
+    @Test
+    void rejectsAfterWaitingTooLong() throws Exception {
+        RenderWorkerPool pool = new RenderWorkerPool(metrics, 1, 4, 4, Duration.ofMillis(50));
+        pool.acquire(RenderChannel.UI);
+
+        assertThrows(RenderRejectedException.class, () -> pool.acquire(RenderChannel.UI));
+        assertEquals(0, registry.get("velocity.render.queue.size").tag("channel", "ui").gauge().value());
+        assertTrue(registry.get("velocity.render.queue").tag("channel", "ui").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void batchRecordsWaitAsLongAsItTakes() throws Exception {
+        RenderWorkerPool pool = new RenderWorkerPool(metrics, 1, 0, 0, Duration.ofMillis(50));
+        List<RenderChannel> served = new CopyOnWriteArrayList<>();
+        pool.acquire(RenderChannel.API);
+
+        Thread first = waitFor(pool, RenderChannel.BATCH, served);
+        Thread second = waitFor(pool, RenderChannel.BATCH, served);
+        Thread.sleep(100);
+        pool.release();
+
+        first.join(5_000);
+        second.join(5_000);
+        assertEquals(List.of(RenderChannel.BATCH, RenderChannel.BATCH), served);
+        assertEquals(0, registry.get("velocity.render.failures").tags("channel", "batch", "type", "busy")
+                .counter().count());
+    }
+
+    @Test
+    void slowReceiversDoNotHoldAWorker() throws Exception {
+        RenderWorkerPool pool = new RenderWorkerPool(metrics, 1, 0, 0, Duration.ZERO);
+        VelocityTemplateService service = new RenderFixture(templates).metrics(metrics).workerPool(pool).service();
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        StringWriter received = new StringWriter();
+        Writer slowClient = new FilterWriter(received) {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                writing.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                super.write(buffer, offset, length);
+            }
+        };
+        Thread streaming = Thread.ofVirtual().start(() -> {
+            try {
+                service.merge(service.compile("#foreach($i in [1..5000])0123456789#end", RenderChannel.API),
+                        Map.of(), slowClient, RenderChannel.API, RenderBudget.start(service.renderLimits()),
+                        OutputPipeline.NONE);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertEquals("done", service.render("done", Map.of(), RenderChannel.UI));
+        unblock.countDown();
+        streaming.join(5_000);
+        assertEquals("0123456789".repeat(5000), received.toString());
+        assertEquals(0, registry.get("velocity.render.workers.active").gauge().value());
+    }
+
+    private static Thread waitFor(RenderWorkerPool pool, RenderChannel channel, List<RenderChannel> served) {
+        return Thread.ofVirtual().start(() -> {
+            try {
+                pool.acquire(channel);
+                served.add(channel);
+                pool.release();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void awaitQueued(RenderChannel channel) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("velocity.render.queue.size").tag("channel", channel.tag()).gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
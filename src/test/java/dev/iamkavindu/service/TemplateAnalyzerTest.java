@@ -0,0 +1,119 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.config.VelocityEngineProperties;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.repository.TemplateRepository;
+import org.apache.velocity.Template;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateAnalyzerTest {
+
+    @TempDir
+    Path templates;
+
+    private TemplateRepository repository;
+    private MacroLibrary macroLibrary;
+    private TemplateAnalyzer analyzer;
+    private VelocityTemplateService service;
+
+    @BeforeEach
+    void setUp() {
+        RenderFixture fixture = new RenderFixture(templates).profile(VelocityEngineProperties.Profile.DEFAULT);
+        service = fixture.service();
+        repository = fixture.repository();
+        macroLibrary = fixture.macroLibrary();
+        analyzer = new TemplateAnalyzer(macroLibrary);
+    }
+
+    private TemplateAnalysis analyze(String template) throws Exception {
+        return analyzer.analyze(service.compile(template, RenderChannel.UI));
+    }
+
+    @Test
+    void followsVariablesToTheDataTheyStandFor() throws Exception {
+        TemplateAnalysis analysis = analyze("""
+                #set($customer = $order.customer)
+                $customer.name
+                #foreach($line in $order.lines)$line.sku ${line.price.format()}#end
+                #if($order.note)$order.note.text#end
+                """);
+
+        assertEquals(Set.of("customer.name", "order.customer.name", "line.sku", "line.price",
+                "order.lines[].sku", "order.lines[].price", "order.note", "order.note.text"), analysis.references());
+        assertEquals(Set.of("customer", "line"), analysis.locals());
+        assertFalse(analysis.projection().isAll());
+    }
+
+    @Test
+    void collectsMacrosAndIncludes() throws Exception {
+        TemplateAnalysis analysis = analyze("""
+                #macro(row $item $label='-')$label: $item.name#end
+                #row($product)#footer()
+                #parse("header")#include($resource)
+                """);
+
+        assertEquals(Set.of("row"), analysis.macrosDefined());
+        assertEquals(Set.of("row", "footer"), analysis.macrosUsed());
+        assertEquals(Set.of("header"), analysis.includes());
+        assertTrue(analysis.dynamicIncludes());
+        assertTrue(analysis.locals().containsAll(Set.of("item", "label")));
+        assertFalse(analysis.isDeterministic());
+        // Included templates may read anything
+        assertSame(JsonProjection.ALL, analysis.projection());
+    }
+
+    @Test
+    void readsThroughMacrosOfTheLibrary() throws Exception {
+        String template = "#foreach($order in $orders)#price($order.total)#end #signature()";
+        assertSame(JsonProjection.ALL, analyze(template).projection());
+
+        macroLibrary.use(repository.save("macros", """
+                #macro(price $amount)$amount $currency.code#end
+                #macro(signature)#foreach($line in $company.address)$line.street#end#end
+                """).id());
+        TemplateAnalysis analysis = analyze(template);
+
+        assertEquals(Set.of("price", "signature"), analysis.libraryMacros());
+        assertTrue(analysis.macrosDefined().isEmpty());
+        assertTrue(analysis.uses().stream().noneMatch(use -> use.root().equals("company")));
+        assertNotSame(JsonProjection.ALL, analysis.projection());
+        assertTrue(analysis.references().containsAll(Set.of("orders[].total", "currency.code", "company.address[].street")));
+    }
+
+    @Test
+    void reportsReferencesMissingFromTheData() throws Exception {
+        TemplateAnalysis analysis = analyze("""
+                $user.name $user.email
+                $!nickname#if($admin)!#end
+                #foreach($role in $user.roles)$role#end $missing
+                """);
+
+        List<TemplateAnalysis.ReferenceUse> undefined = analyzer.undefinedReferences(analysis,
+                Map.of("user", Map.of("name", "A", "roles", List.of("r"))), new GlobalContext(Map.of()));
+
+        assertEquals(List.of("$user.email", "$missing"),
+                undefined.stream().map(TemplateAnalysis.ReferenceUse::reference).toList());
+        assertEquals(1, undefined.getFirst().line());
+        assertEquals(12, undefined.getFirst().column());
+    }
+
+    @Test
+    void memoizesAnalysisPerParsedTemplate() throws Exception {
+        Template compiled = service.compile("$a", RenderChannel.UI);
+
+        assertSame(analyzer.analyze(compiled), analyzer.analyze(compiled));
+    }
+}
@@ -0,0 +1,50 @@
+package dev.iamkavindu.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class Utf8BufferTest {
+
+    @Test
+    void encodesLikeString() throws Exception {
+        String text = "ascii é € 日本 😀 \uD800 x \uDC00";
+        Utf8Buffer buffer = new Utf8Buffer(4);
+
+        buffer.write(text);
+        buffer.finish();
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+    }
+
+    @Test
+    void joinsSurrogatePairSplitAcrossWrites() throws Exception {
+        String emoji = "😀";
+        Utf8Buffer buffer = new Utf8Buffer(16);
+
+        buffer.write(emoji.charAt(0));
+        buffer.write(emoji, 1, 1);
+        buffer.write("\uD83D");
+        buffer.finish();
+
+        assertArrayEquals((emoji + "?").getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+    }
+
+    @Test
+    void poolReusesReleasedBuffers() throws Exception {
+        OutputBufferPool pool = new OutputBufferPool(1);
+        Utf8Buffer buffer = pool.acquire(100);
+        buffer.write("leftover");
+        pool.release(buffer);
+
+        Utf8Buffer reused = pool.acquire(OutputBufferPool.capacityOf(0));
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+        assertEquals(OutputBufferPool.capacityOf(1), pool.acquire(OutputBufferPool.capacityOf(0) + 1).capacity());
+    }
+}
@@ -0,0 +1,129 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import dev.iamkavindu.repository.TemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VelocityTemplateServiceConcurrencyTest {
+
+    private static final String TEMPLATE = """
+            #set($greeting = "Hello $user")
+            $greeting #if($secret)[$secret]#end#foreach($item in $items)<$item>#end
+            """;
+
+    private final GlobalContext globalContext = new GlobalContext(Map.of("app", "renderer"));
+    private final RenderMetrics metrics = new RenderMetrics(new SimpleMeterRegistry());
+
+    @TempDir
+    Path templates;
+
+    private TemplateRepository repository;
+    private MacroLibrary macroLibrary;
+    private VelocityTemplateService service;
+
+    @BeforeEach
+    void setUp() {
+        RenderFixture fixture = new RenderFixture(templates).metrics(metrics).globalContext(globalContext);
+        service = fixture.service();
+        repository = fixture.repository();
+        macroLibrary = fixture.macroLibrary();
+    }
+
+    @Test
+    void concurrentRendersNeverSeeEachOthersData() throws Exception {
+        int renders = 20_000;
+        List<Future<String>> results = new ArrayList<>(renders);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < renders; i++) {
+                Map<String, Object> data = i % 2 == 0
+                        ? Map.of("user", "user-" + i, "secret", "secret-" + i, "items", List.of(i, i + 1))
+                        : Map.of("user", "user-" + i, "items", List.of(i));
+                results.add(executor.submit(() -> service.render(TEMPLATE, data, RenderChannel.API)));
+            }
+        }
+
+        for (int i = 0; i < renders; i++) {
+            String expected = i % 2 == 0
+                    ? "Hello user-%d [secret-%d]<%d><%d>".formatted(i, i, i, i + 1)
+                    : "Hello user-%d <%d>".formatted(i, i);
+            assertEquals(expected, results.get(i).get().strip());
+        }
+        assertEquals(1, globalContext.keys().size());
+    }
+
+    @Test
+    void macrosStayLocalToTheirTemplateAndTheLibraryIsReplacedWhole() throws Exception {
+        macroLibrary.use(repository.save("macros", "#macro(greet $name)Hi $name#end#macro(sign) -- v1#end").id());
+        String overriding = "#macro(greet $name)Hello $name#end#greet($user)#sign()";
+        String plain = "#greet($user)#sign()";
+        int renders = 10_000;
+        List<Future<String>> results = new ArrayList<>(renders);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < renders; i++) {
+                String template = i % 2 == 0 ? overriding : plain;
+                Map<String, Object> data = Map.of("user", "user-" + i);
+                results.add(executor.submit(() -> service.render(template, data, RenderChannel.API)));
+            }
+        }
+
+        for (int i = 0; i < renders; i++) {
+            assertEquals((i % 2 == 0 ? "Hello" : "Hi") + " user-" + i + " -- v1", results.get(i).get());
+        }
+
+        macroLibrary.use(repository.save("macros", "#macro(greet $name)Hey $name#end#macro(sign) -- v2#end").id());
+        assertEquals("Hey user -- v2", service.render(plain, Map.of("user", "user"), RenderChannel.API));
+        assertEquals("Hello user -- v2", service.render(overriding, Map.of("user", "user"), RenderChannel.API));
+    }
+
+    @Test
+    void heapStaysFlatAcrossRepeatedLoad() throws Exception {
+        renderUniqueKeys(5_000);
+        long baseline = usedHeapAfterGc();
+
+        renderUniqueKeys(20_000);
+        long afterLoad = usedHeapAfterGc();
+
+        // Each render carries ~1 KiB of unique data; retaining it would add ~20 MiB
+        long growth = afterLoad - baseline;
+        assertTrue(growth < 8 * 1024 * 1024, "Heap grew by " + growth + " bytes");
+    }
+
+    private void renderUniqueKeys(int renders) throws Exception {
+        String payload = "x".repeat(1024);
+        List<Future<String>> results = new ArrayList<>(renders);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < renders; i++) {
+                Map<String, Object> data = Map.of("user", "user-" + i, "items", List.of(), "key-" + i, payload + i);
+                results.add(executor.submit(() -> service.render(TEMPLATE, data, RenderChannel.API)));
+            }
+        }
+        for (Future<String> result : results) {
+            result.get();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,119 @@
+package dev.iamkavindu.service;
+
+import dev.iamkavindu.errors.LoopLimitExceededException;
+import dev.iamkavindu.errors.MacroDepthExceededException;
+import dev.iamkavindu.errors.OutputLimitExceededException;
+import dev.iamkavindu.errors.RenderCancelledException;
+import dev.iamkavindu.errors.RenderTimeoutException;
+import dev.iamkavindu.errors.TemplateRenderException;
+import dev.iamkavindu.metrics.RenderChannel;
+import dev.iamkavindu.metrics.RenderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.velocity.Template;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VelocityTemplateServiceLimitsTest {
+
+    private static final String ENDLESS_LOOP = "#foreach($i in [1..100000000])#foreach($j in [1..100000000])#end#end";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final RenderMetrics metrics = new RenderMetrics(registry);
+
+    @TempDir
+    Path templates;
+
+    @TempDir
+    Path outside;
+
+    private VelocityTemplateService service(RenderLimits limits) {
+        return new RenderFixture(templates).metrics(metrics).limits(limits).service();
+    }
+
+    @Test
+    void rendersWithinLimits() throws Exception {
+        VelocityTemplateService service = service(new RenderLimits(Duration.ofSeconds(5), 10, 3, 2));
+
+        assertEquals("123", service.render("#foreach($i in [1..3])$i#end", Map.of(), RenderChannel.API));
+    }
+
+    @Test
+    void stopsRenderAtDeadline() {
+        VelocityTemplateService service = service(new RenderLimits(Duration.ofMillis(50), 0, 0, 0));
+
+        long start = System.nanoTime();
+        assertThrows(RenderTimeoutException.class, () -> service.render(ENDLESS_LOOP, Map.of(), RenderChannel.API));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertEquals(1, registry.get("velocity.render.failures").tags("channel", "api", "type", "limit")
+                .counter().count());
+    }
+
+    @Test
+    void capsOutputBeforeItReachesTheWriter() throws Exception {
+        VelocityTemplateService service = service(new RenderLimits(Duration.ZERO, 100, 0, 0));
+        Template compiled = service.compile("#foreach($i in [1..1000])0123456789#end", RenderChannel.API);
+        StringWriter writer = new StringWriter();
+
+        assertThrows(OutputLimitExceededException.class, () -> service.merge(compiled, Map.of(), writer,
+                RenderChannel.API, RenderBudget.start(service.renderLimits()), OutputPipeline.NONE));
+        assertEquals(100, writer.toString().length());
+    }
+
+    @Test
+    void capsLoopIterationsAcrossNestedLoops() {
+        VelocityTemplateService service = service(new RenderLimits(Duration.ZERO, 0, 1_000, 0));
+
+        assertThrows(LoopLimitExceededException.class,
+                () -> service.render(ENDLESS_LOOP, Map.of(), RenderChannel.API));
+    }
+
+    @Test
+    void capsMacroRecursion() {
+        VelocityTemplateService service = service(new RenderLimits(Duration.ZERO, 0, 0, 10));
+
+        assertThrows(MacroDepthExceededException.class, () -> service.render(
+                "#macro(down $n)#down($n)#end#down(1)", Map.of(), RenderChannel.API));
+    }
+
+    @Test
+    void stopsCancelledRender() throws Exception {
+        VelocityTemplateService service = service(RenderLimits.UNLIMITED);
+        Template compiled = service.compile(ENDLESS_LOOP, RenderChannel.UI);
+        RenderBudget budget = RenderBudget.start(RenderLimits.UNLIMITED);
+        budget.cancel();
+
+        assertThrows(RenderCancelledException.class, () -> service.merge(
+                compiled, Map.of(), new StringWriter(), RenderChannel.UI, budget, OutputPipeline.NONE));
+    }
+
+    @Test
+    void templatesCannotReadFilesOutsideTheRepository() throws Exception {
+        RenderFixture fixture = new RenderFixture(templates);
+        fixture.repository().save("invoice", "Total: $total");
+        VelocityTemplateService service = fixture.service();
+        Path secret = Files.writeString(outside.resolve("workspaces.log"), "secret $name");
+        Path stored;
+        try (var files = Files.walk(templates)) {
+            stored = files.filter(Files::isRegularFile).findFirst().orElseThrow();
+        }
+
+        assertEquals("Total: 3", service.render("#parse('invoice')", Map.of("total", 3), RenderChannel.API));
+        for (Path file : new Path[]{secret, Path.of("").toAbsolutePath().relativize(secret), stored}) {
+            for (String directive : new String[]{"#include", "#parse"}) {
+                assertThrows(TemplateRenderException.class,
+                        () -> service.render(directive + "('" + file + "')", Map.of(), RenderChannel.API));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dev.iamkavindu.ui;
+
+import dev.iamkavindu.service.RenderedOutput;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreviewPagesTest {
+
+    @Test
+    void smallDocumentsAreOnePage() {
+        String text = "<p>short</p>";
+        byte[] document = text.getBytes(StandardCharsets.UTF_8);
+        PreviewPages pages = new PreviewPages(RenderedOutput.of(text), 1024);
+
+        assertEquals(1, pages.count());
+        assertEquals(0, pages.start(0));
+        assertEquals(document.length, pages.end(0));
+    }
+
+    @Test
+    void pagesCoverTheDocumentAndEndBeforeTags() {
+        String text = "<tr><td>Zoë 😀</td></tr>\n".repeat(2_000);
+        byte[] document = text.getBytes(StandardCharsets.UTF_8);
+        PreviewPages pages = new PreviewPages(RenderedOutput.of(text), 4096);
+
+        ByteArrayOutputStream joined = new ByteArrayOutputStream();
+        for (int page = 0; page < pages.count(); page++) {
+            int start = pages.start(page);
+            int end = pages.end(page);
+            assertTrue(start < end);
+            if (page > 0) {
+                assertEquals(pages.end(page - 1), start);
+                assertEquals('<', document[start]);
+            }
+            joined.write(document, start, end - start);
+        }
+        assertArrayEquals(document, joined.toByteArray());
+    }
+
+    @Test
+    void pagesWithoutTagsNeverSplitACharacter() {
+        String text = "ශ".repeat(10_000);
+        byte[] document = text.getBytes(StandardCharsets.UTF_8);
+        PreviewPages pages = new PreviewPages(RenderedOutput.of(text), 1000);
+
+        for (int page = 1; page < pages.count(); page++) {
+            int start = pages.start(page);
+            assertTrue((document[start] & 0xC0) != 0x80);
+            assertEquals(0, start % 3);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.iamkavindu.ui;
+
+import com.vaadin.flow.server.Command;
+import dev.iamkavindu.service.RenderBudget;
+import dev.iamkavindu.service.RenderLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderSchedulerTest {
+
+    private final BlockingQueue<Command> delivered = new LinkedBlockingQueue<>();
+    private final List<String> shown = new CopyOnWriteArrayList<>();
+    private final RenderScheduler scheduler = new RenderScheduler(RenderLimits.UNLIMITED, delivered::add);
+
+    @Test
+    void coalescesBurstAndCancelsStaleRender() throws Exception {
+        List<String> rendered = new CopyOnWriteArrayList<>();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch firstCancelled = new CountDownLatch(1);
+
+        scheduler.submit(budget -> {
+            firstStarted.countDown();
+            while (!budget.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            firstCancelled.countDown();
+            return show("first");
+        });
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        for (String input : List.of("second", "third", "fourth")) {
+            scheduler.submit(budget -> {
+                rendered.add(input);
+                return show(input);
+            });
+        }
+
+        assertTrue(firstCancelled.await(5, TimeUnit.SECONDS));
+        Command update = delivered.poll(5, TimeUnit.SECONDS);
+        update.execute();
+
+        assertEquals(List.of("fourth"), rendered);
+        assertEquals(List.of("fourth"), shown);
+        assertNull(delivered.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void dropsResultThatWentStaleBeforeDelivery() throws Exception {
+        scheduler.submit(budget -> show("old"));
+        Command stale = delivered.poll(5, TimeUnit.SECONDS);
+
+        scheduler.submit(budget -> show("new"));
+        Command current = delivered.poll(5, TimeUnit.SECONDS);
+        stale.execute();
+        current.execute();
+
+        assertEquals(List.of("new"), shown);
+    }
+
+    @Test
+    void cancelDiscardsRenderInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit((RenderBudget budget) -> {
+            started.countDown();
+            while (!budget.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            return show("discarded");
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        scheduler.cancel();
+
+        assertNull(delivered.poll(200, TimeUnit.MILLISECONDS));
+        assertTrue(shown.isEmpty());
+    }
+
+    private Command show(String output) {
+        return () -> shown.add(output);
+    }
+}
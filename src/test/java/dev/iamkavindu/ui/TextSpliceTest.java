@@ -0,0 +1,38 @@
+package dev.iamkavindu.ui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextSpliceTest {
+
+    @Test
+    void capturesOnlyTheChangedRegion() {
+        String previous = "<html><body><h1>Hello, Jane!</h1><p>footer</p></body></html>";
+        String next = "<html><body><h1>Hello, John!</h1><p>footer</p></body></html>";
+
+        TextSplice splice = TextSplice.between(previous, next);
+
+        assertEquals("ohn", splice.insert());
+        assertEquals(next, splice.applyTo(previous));
+    }
+
+    @Test
+    void handlesInsertionsDeletionsAndRepeatedCharacters() {
+        assertRoundTrip("aaaa", "aaaaaa");
+        assertRoundTrip("aaaaaa", "aaaa");
+        assertRoundTrip("", "abc");
+        assertRoundTrip("abc", "");
+        assertRoundTrip("abcabc", "abXabc");
+    }
+
+    @Test
+    void identicalTextsGiveAnEmptySplice() {
+        assertTrue(TextSplice.between("same", "same").isEmpty());
+    }
+
+    private static void assertRoundTrip(String previous, String next) {
+        assertEquals(next, TextSplice.between(previous, next).applyTo(previous));
+    }
+}